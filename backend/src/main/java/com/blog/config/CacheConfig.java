@@ -0,0 +1,86 @@
+package com.blog.config;
+
+import com.blog.service.WebSearchService;
+import com.blog.util.InstrumentedExecutor;
+import com.blog.util.RedisCacheTier;
+import com.blog.util.SwrCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Stale-while-revalidate caches for web search: raw per-query results and the LLM summaries built
+ * from them. Each can share its entries through Redis when {@code app.cache.web.redis-enabled} is set.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final TypeReference<List<WebSearchService.WebSearchResult>> RESULT_LIST =
+            new TypeReference<>() {
+            };
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final long maxSize;
+
+    public CacheConfig(
+            ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+            @Value("${app.cache.web.redis-enabled:false}") boolean redisEnabled,
+            @Value("${app.cache.web.max-size:1000}") long maxSize) {
+        this.redisConnectionFactory = redisEnabled ? redisConnectionFactory.getIfAvailable() : null;
+        this.maxSize = maxSize;
+    }
+
+    @Bean
+    public SwrCache<List<WebSearchService.WebSearchResult>> webResultCache(
+            ObjectMapper objectMapper,
+            @Qualifier("searchIoExecutor") InstrumentedExecutor refreshExecutor,
+            @Value("${app.cache.web.results-fresh-seconds:120}") long freshSeconds,
+            @Value("${app.cache.web.results-stale-seconds:900}") long staleSeconds) {
+        Duration fresh = Duration.ofSeconds(freshSeconds);
+        Duration stale = Duration.ofSeconds(staleSeconds);
+        return new SwrCache<>("web-results", maxSize, fresh, stale, refreshExecutor,
+                redisTier("web-results:", fresh.plus(stale)),
+                results -> {
+                    try {
+                        return objectMapper.writeValueAsBytes(results);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                },
+                bytes -> {
+                    try {
+                        return objectMapper.readValue(bytes, RESULT_LIST);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    @Bean
+    public SwrCache<String> webSummaryCache(
+            @Qualifier("searchIoExecutor") InstrumentedExecutor refreshExecutor,
+            @Value("${app.cache.web.summary-fresh-seconds:300}") long freshSeconds,
+            @Value("${app.cache.web.summary-stale-seconds:1800}") long staleSeconds) {
+        Duration fresh = Duration.ofSeconds(freshSeconds);
+        Duration stale = Duration.ofSeconds(staleSeconds);
+        return new SwrCache<>("web-summary", maxSize, fresh, stale, refreshExecutor,
+                redisTier("web-summary:", fresh.plus(stale)),
+                summary -> summary.getBytes(StandardCharsets.UTF_8),
+                bytes -> new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private RedisCacheTier redisTier(String keyPrefix, Duration ttl) {
+        return redisConnectionFactory == null ? null : new RedisCacheTier(redisConnectionFactory, keyPrefix, ttl);
+    }
+}
@@ -0,0 +1,29 @@
+package com.blog.config;
+
+import com.blog.util.BoundaryAwareChunkingStrategy;
+import com.blog.util.ChunkingStrategy;
+import com.blog.util.FixedSizeChunkingStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the chunking strategy used when documents are written to the knowledge base.
+ * "boundary" (default) breaks on headings, paragraphs and sentences within a token budget;
+ * "fixed" keeps the original fixed-size character windows.
+ */
+@Configuration
+public class ChunkingConfig {
+
+    @Bean
+    public ChunkingStrategy chunkingStrategy(
+            @Value("${app.chunking.strategy:boundary}") String strategy,
+            @Value("${app.chunking.max-tokens:400}") int maxTokens,
+            @Value("${app.chunking.overlap-tokens:50}") int overlapTokens,
+            @Value("${app.chunking.fixed-size:500}") int fixedSize) {
+        if ("fixed".equalsIgnoreCase(strategy)) {
+            return new FixedSizeChunkingStrategy(fixedSize);
+        }
+        return new BoundaryAwareChunkingStrategy(maxTokens, overlapTokens);
+    }
+}
@@ -0,0 +1,34 @@
+package com.blog.config;
+
+import com.blog.util.InstrumentedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shared executors for blocking remote I/O.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Search branches: JDBC + embedding calls for local search, Jsoup scraping and LLM summaries for web search.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedExecutor searchIoExecutor(
+            @Value("${app.search.max-concurrency:32}") int maxConcurrency,
+            @Value("${app.concurrency.virtual-threads:true}") boolean virtualThreads) {
+        return new InstrumentedExecutor("search-io", maxConcurrency, virtualThreads);
+    }
+
+    /**
+     * Individual web page / feed fetches fanned out by WebSearchService. Kept apart from
+     * searchIoExecutor so fetches never wait behind the search branches that spawned them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedExecutor webFetchExecutor(
+            @Value("${app.search.web-fetch-concurrency:16}") int maxConcurrency,
+            @Value("${app.concurrency.virtual-threads:true}") boolean virtualThreads) {
+        return new InstrumentedExecutor("web-fetch", maxConcurrency, virtualThreads);
+    }
+}
@@ -0,0 +1,87 @@
+package com.blog.config;
+
+import com.pgvector.PGvector;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Registers the pgvector types on every physical connection the Hikari pool opens, so PGvector
+ * parameters and results use PostgreSQL's binary protocol. The pool bean itself is left in place
+ * (its close() and metrics keep working); only the source of its physical connections is wrapped.
+ * The driver caches a failed type lookup per connection, so connections opened before Flyway
+ * created the vector extension are evicted from the pool once the context is refreshed.
+ */
+@Configuration
+public class PgvectorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PgvectorConfig.class);
+
+    @Bean
+    public static BeanPostProcessor pgvectorDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                // Properties are bound by now and the pool starts lazily, so its connection source can still be set
+                if (bean instanceof HikariDataSource hikari && hikari.getDataSource() == null
+                        && hikari.getJdbcUrl() != null && hikari.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+                    PGSimpleDataSource postgres = new PGSimpleDataSource();
+                    postgres.setURL(hikari.getJdbcUrl());
+                    hikari.setDataSource(new VectorTypeDataSource(postgres));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void evictConnectionsOpenedBeforeMigration(ContextRefreshedEvent event) {
+        event.getApplicationContext().getBeansOfType(HikariDataSource.class).values().forEach(hikari -> {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null && hikari.getDataSource() instanceof VectorTypeDataSource) {
+                pool.softEvictConnections();
+            }
+        });
+    }
+
+    static final class VectorTypeDataSource extends DelegatingDataSource {
+
+        VectorTypeDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        @NonNull
+        public Connection getConnection() throws SQLException {
+            return register(super.getConnection());
+        }
+
+        @Override
+        @NonNull
+        public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+            return register(super.getConnection(username, password));
+        }
+
+        private Connection register(Connection connection) {
+            try {
+                PGvector.addVectorType(connection);
+            } catch (SQLException ex) {
+                log.debug("Could not register pgvector type on connection: {}", ex.getMessage());
+            }
+            return connection;
+        }
+    }
+}
@@ -49,6 +49,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/news/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/knowledge").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/knowledge/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/stats").permitAll()
 
                         // Public endpoints - schedules (allow all operations)
                         .requestMatchers("/api/schedules/**").permitAll()
@@ -72,6 +73,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/knowledge/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/knowledge/**").authenticated()
                         .requestMatchers("/api/auth/logout", "/api/auth/me").authenticated()
+                        // Cache and executor diagnostics
+                        .requestMatchers("/api/stats/**").authenticated()
 
                         // Allow all other requests (adjust as needed)
                         .anyRequest().permitAll())
@@ -0,0 +1,39 @@
+package com.blog.config;
+
+import com.blog.repository.KnowledgeEmbeddingRepository;
+import com.blog.repository.KnowledgeSearchRepository;
+import com.blog.service.HnswVectorIndex;
+import com.blog.service.PgvectorVectorIndex;
+import com.blog.service.VectorIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class VectorIndexConfig {
+
+    /** Dimension of knowledge_base.embedding, vector(1024). */
+    private static final int EMBEDDING_DIMENSION = 1024;
+
+    @Bean
+    public VectorIndex vectorIndex(
+            KnowledgeSearchRepository knowledgeSearchRepository,
+            KnowledgeEmbeddingRepository knowledgeEmbeddingRepository,
+            @Value("${app.vector.engine:pgvector}") String engine,
+            @Value("${app.vector.hnsw.m:16}") int m,
+            @Value("${app.vector.hnsw.ef-construction:100}") int efConstruction,
+            @Value("${app.vector.hnsw.snapshot-path:data/knowledge-hnsw.bin}") String snapshotPath,
+            @Value("${app.vector.hnsw.sync-interval-ms:5000}") long syncIntervalMillis,
+            @Value("${app.vector.hnsw.sync-lag-ms:60000}") long syncLagMillis,
+            @Value("${app.vector.hnsw.delete-check-interval-ms:300000}") long deleteCheckIntervalMillis) {
+        VectorIndex pgvector = new PgvectorVectorIndex(knowledgeSearchRepository);
+        if ("hnsw".equalsIgnoreCase(engine) || "local".equalsIgnoreCase(engine)) {
+            return new HnswVectorIndex(knowledgeEmbeddingRepository, knowledgeSearchRepository, pgvector,
+                    EMBEDDING_DIMENSION, m, efConstruction, Path.of(snapshotPath), syncIntervalMillis, syncLagMillis,
+                    deleteCheckIntervalMillis);
+        }
+        return pgvector;
+    }
+}
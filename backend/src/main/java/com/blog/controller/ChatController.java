@@ -1,26 +1,32 @@
 package com.blog.controller;
 
-import com.blog.model.dto.ChatResponse;
 import com.blog.model.dto.SearchRequest;
+import com.blog.model.vo.KnowledgeVO;
 import com.blog.service.ChatService;
+import com.blog.util.VirtualThreads;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
+import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import jakarta.annotation.PreDestroy;
-
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
@@ -28,29 +34,33 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class ChatController {
 
     private static final Logger log = LoggerFactory.getLogger(ChatController.class);
-    private static final int STREAM_CORE_SIZE = 2;
-    private static final int STREAM_MAX_SIZE = 4;
-    private static final int STREAM_QUEUE_CAPACITY = 200;
-    private static final long STREAM_KEEP_ALIVE_SECONDS = 60L;
     private static final long SSE_TIMEOUT_MILLIS = 0L;
-    private static final int CHUNK_SIZE = 24;
 
     private final ChatService chatService;
     private final ObjectMapper objectMapper;
     private final ExecutorService streamExecutor;
-
-    public ChatController(ChatService chatService, ObjectMapper objectMapper) {
+    private final Scheduler sendScheduler;
+    private final Semaphore streamPermits;
+    private final long acquireTimeoutMillis;
+    private final int maxWaiting;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public ChatController(
+            ChatService chatService,
+            ObjectMapper objectMapper,
+            @Value("${app.concurrency.virtual-threads:true}") boolean virtualThreads,
+            @Value("${app.chat.max-concurrent-streams:64}") int maxConcurrentStreams,
+            @Value("${app.chat.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
         this.chatService = chatService;
         this.objectMapper = objectMapper;
-        this.streamExecutor = new ThreadPoolExecutor(
-            STREAM_CORE_SIZE,
-            STREAM_MAX_SIZE,
-            STREAM_KEEP_ALIVE_SECONDS,
-            TimeUnit.SECONDS,
-            new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY),
-            new NamedThreadFactory("chat-stream"),
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        this.streamExecutor = VirtualThreads.newThreadPerTaskExecutor("chat-stream", virtualThreads);
+        this.sendScheduler = Schedulers.fromExecutor(streamExecutor);
+        this.streamPermits = new Semaphore(Math.max(1, maxConcurrentStreams), true);
+        this.acquireTimeoutMillis = Math.max(0, acquireTimeoutMillis);
+        // Without virtual threads every waiting chat parks a pooled platform thread for up to the
+        // acquire timeout, so no more chats wait than may run
+        this.maxWaiting = virtualThreads && VirtualThreads.isSupported()
+                ? Integer.MAX_VALUE : Math.max(1, maxConcurrentStreams);
     }
 
     @PostMapping(value = "/knowledge", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -60,44 +70,92 @@ public class ChatController {
         return emitter;
     }
 
+    /**
+     * Sends the retrieved sources first, then forwards answer tokens as the model produces them.
+     * Tokens are requested one at a time, so a slow client slows the upstream model stream down,
+     * and the upstream is cancelled when the client disconnects or the emitter times out.
+     * Tokens are handed to the stream executor before the blocking SSE send, so a slow client
+     * never holds up the model client's I/O thread, which is shared by every stream.
+     * At most {@code app.chat.max-concurrent-streams} chats run at once; later ones wait up to
+     * {@code app.chat.acquire-timeout-ms} for a slot and are then rejected with an error event.
+     * On platform threads (Java 17, or virtual threads disabled) at most as many chats wait as may
+     * run, and further ones are rejected at once.
+     */
     private void streamKnowledge(SseEmitter emitter, SearchRequest request) {
+        if (!acquireStreamPermit()) {
+            // Load shedding, not a failure of the stream
+            log.warn("Knowledge chat rejected: no free stream slot, {} chats waiting", waiting.get());
+            sendError(emitter, new IllegalStateException("too many concurrent chats, please retry later"));
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releasePermit = () -> {
+            if (released.compareAndSet(false, true)) {
+                streamPermits.release();
+            }
+        };
+
+        TokenSubscriber subscriber = new TokenSubscriber(emitter, releasePermit);
+        emitter.onCompletion(() -> {
+            subscriber.dispose();
+            releasePermit.run();
+        });
+        emitter.onTimeout(subscriber::dispose);
+        emitter.onError(error -> subscriber.dispose());
+
+        ChatService.KnowledgeStream stream;
         try {
-            ChatResponse response = chatService.chatWithKnowledge(
+            stream = chatService.streamWithKnowledge(
                 request.getQuery(),
                 request.getLimit(),
                 request.getThreshold()
             );
-            String answer = response.getAnswer() == null ? "" : response.getAnswer();
-            sendChunks(emitter, answer);
-            sendSources(emitter, response);
-            sendEvent(emitter, "done", "[DONE]");
-            emitter.complete();
+            sendSources(emitter, stream.sources());
         } catch (Exception ex) {
-            log.error("Knowledge chat stream failed.", ex);
-            try {
-                sendEvent(emitter, "error", ex.getMessage());
-            } catch (Exception ignored) {
-                log.warn("Failed to send error event: {}", ignored.getMessage());
-            }
-            emitter.completeWithError(ex);
+            releasePermit.run();
+            fail(emitter, ex);
+            return;
         }
+
+        stream.answer()
+                .publishOn(sendScheduler, 1)
+                .subscribe(subscriber);
     }
 
-    private void sendChunks(SseEmitter emitter, String answer) throws Exception {
-        if (answer == null || answer.isBlank()) {
-            return;
+    private boolean acquireStreamPermit() {
+        if (streamPermits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            return false;
         }
-        int index = 0;
-        while (index < answer.length()) {
-            int end = Math.min(answer.length(), index + CHUNK_SIZE);
-            String chunk = answer.substring(index, end);
-            sendEvent(emitter, "chunk", chunk);
-            index = end;
+        try {
+            return streamPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
         }
     }
 
-    private void sendSources(SseEmitter emitter, ChatResponse response) throws Exception {
-        String json = objectMapper.writeValueAsString(response.getSources());
+    private void fail(SseEmitter emitter, Throwable ex) {
+        log.error("Knowledge chat stream failed.", ex);
+        sendError(emitter, ex);
+    }
+
+    private void sendError(SseEmitter emitter, Throwable ex) {
+        try {
+            sendEvent(emitter, "error", ex.getMessage());
+        } catch (Exception ignored) {
+            log.warn("Failed to send error event: {}", ignored.getMessage());
+        }
+        emitter.completeWithError(ex);
+    }
+
+    private void sendSources(SseEmitter emitter, List<KnowledgeVO> sources) throws Exception {
+        String json = objectMapper.writeValueAsString(sources);
         sendEvent(emitter, "sources", json);
     }
 
@@ -107,23 +165,55 @@ public class ChatController {
 
     @PreDestroy
     public void shutdownStreamExecutor() {
-        streamExecutor.shutdown();
+        streamExecutor.shutdownNow();
     }
 
-    private static final class NamedThreadFactory implements ThreadFactory {
-        private final String prefix;
-        private final AtomicInteger index = new AtomicInteger(1);
+    private final class TokenSubscriber extends BaseSubscriber<String> {
+
+        private final SseEmitter emitter;
+        private final Runnable onFinish;
+
+        private TokenSubscriber(SseEmitter emitter, Runnable onFinish) {
+            this.emitter = emitter;
+            this.onFinish = onFinish;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+        }
 
-        private NamedThreadFactory(String prefix) {
-            this.prefix = prefix;
+        @Override
+        protected void hookOnNext(String token) {
+            try {
+                sendEvent(emitter, "chunk", token);
+                request(1);
+            } catch (Exception ex) {
+                // Client went away; stop generating
+                log.debug("Knowledge chat client disconnected: {}", ex.getMessage());
+                dispose();
+                emitter.completeWithError(ex);
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            try {
+                sendEvent(emitter, "done", "[DONE]");
+                emitter.complete();
+            } catch (Exception ex) {
+                emitter.completeWithError(ex);
+            }
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            fail(emitter, throwable);
         }
 
         @Override
-        public Thread newThread(Runnable runnable) {
-            Thread thread = new Thread(runnable);
-            thread.setName(prefix + "-" + index.getAndIncrement());
-            thread.setDaemon(true);
-            return thread;
+        protected void hookFinally(SignalType type) {
+            onFinish.run();
         }
     }
 }
@@ -22,7 +22,7 @@ public class ImportController {
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ApiResponse<ImportResult> upload(@RequestPart("file") MultipartFile file) {
-        return ApiResponse.success(importService.importDocument(file));
+        return ApiResponse.success(importService.submitImport(file));
     }
 
     @GetMapping("/records")
@@ -21,9 +21,23 @@ public class KnowledgeController {
         this.knowledgeService = knowledgeService;
     }
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Keyset-paginated summaries. Pass the last id of a page as {@code afterId} to get the next one;
+     * {@code fields} is a comma-separated subset of the summary columns.
+     */
     @GetMapping
-    public ApiResponse<List<KnowledgeBase>> list() {
-        return ApiResponse.success(knowledgeService.listAll());
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> list(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) List<String> fields) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        try {
+            return ResponseEntity.ok(ApiResponse.success(knowledgeService.listSummaries(afterId, pageSize, fields)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.failure(400, e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -4,21 +4,41 @@ import com.blog.model.dto.SearchRequest;
 import com.blog.model.vo.KnowledgeVO;
 import com.blog.service.SearchService;
 import com.blog.util.ApiResponse;
+import com.blog.util.InstrumentedExecutor;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchController.class);
+
     private final SearchService searchService;
+    private final InstrumentedExecutor searchIoExecutor;
+    private final long localTimeoutMillis;
+    private final long webTimeoutMillis;
 
-    public SearchController(SearchService searchService) {
+    public SearchController(
+            SearchService searchService,
+            @Qualifier("searchIoExecutor") InstrumentedExecutor searchIoExecutor,
+            @Value("${app.search.local-timeout-ms:5000}") long localTimeoutMillis,
+            @Value("${app.search.web-timeout-ms:20000}") long webTimeoutMillis) {
         this.searchService = searchService;
+        this.searchIoExecutor = searchIoExecutor;
+        this.localTimeoutMillis = localTimeoutMillis;
+        this.webTimeoutMillis = webTimeoutMillis;
     }
 
     @PostMapping("/vector")
@@ -26,7 +46,9 @@ public class SearchController {
         List<KnowledgeVO> results = searchService.vectorSearch(
                 request.getQuery(),
                 request.getLimit(),
-                request.getThreshold());
+                request.getThreshold(),
+                request.getEfSearch(),
+                request.toFilter());
         return ApiResponse.success(Map.of("results", results, "total", results.size()));
     }
 
@@ -35,7 +57,11 @@ public class SearchController {
         List<KnowledgeVO> results = searchService.hybridSearch(
                 request.getQuery(),
                 request.getLimit(),
-                request.getThreshold());
+                request.getThreshold(),
+                request.getVectorWeight(),
+                request.getTextWeight(),
+                request.getEfSearch(),
+                request.toFilter());
         return ApiResponse.success(Map.of("results", results, "total", results.size()));
     }
 
@@ -45,21 +71,45 @@ public class SearchController {
         return ApiResponse.success(Map.of("summary", summary));
     }
 
+    /**
+     * The branch's result, or {@code fallback} when it failed or did not finish within
+     * {@code timeoutMillis} of {@code startedAt}; a late branch is cancelled, which interrupts it
+     * and frees its search-io slot.
+     */
+    private <T> T await(CompletableFuture<T> branch, String name, long startedAt, long timeoutMillis, T fallback) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - startedAt);
+        try {
+            return branch.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            log.warn("Unified search {} branch exceeded {} ms", name, timeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            log.warn("Unified search {} branch failed: {}", name, ex.getCause().getMessage());
+        }
+        branch.cancel(true);
+        return fallback;
+    }
+
     @PostMapping("/unified")
     public ApiResponse<Map<String, Object>> unifiedSearch(@Valid @RequestBody SearchRequest request) {
-        // Run local search and web search in parallel for better performance
-        CompletableFuture<List<KnowledgeVO>> localFuture = CompletableFuture
-                .supplyAsync(() -> searchService.hybridSearch(
+        // Run local search and web search in parallel, each with its own deadline;
+        // a slow or failing branch degrades to an empty result instead of holding up the other
+        CompletableFuture<List<KnowledgeVO>> localFuture = searchIoExecutor
+                .supply(() -> searchService.hybridSearch(
                         request.getQuery(),
                         request.getLimit(),
-                        request.getThreshold()));
-
-        CompletableFuture<String> webFuture = CompletableFuture
-                .supplyAsync(() -> searchService.webSearchWithNews(request.getQuery()));
+                        request.getThreshold(),
+                        request.getVectorWeight(),
+                        request.getTextWeight(),
+                        request.getEfSearch(),
+                        request.toFilter()));
+        CompletableFuture<String> webFuture = searchIoExecutor
+                .supply(() -> searchService.webSearchWithNews(request.getQuery()));
+        long startedAt = System.nanoTime();
 
-        // Wait for both to complete
-        List<KnowledgeVO> localResults = localFuture.join();
-        String webSummary = webFuture.join();
+        List<KnowledgeVO> localResults = await(localFuture, "local", startedAt, localTimeoutMillis, List.of());
+        String webSummary = await(webFuture, "web", startedAt, webTimeoutMillis, null);
 
         // Always return both local results and web summary
         // Frontend can display both sections
@@ -85,4 +135,4 @@ public class SearchController {
                 "source", "combined",
                 "summary", webSummary != null ? webSummary : ""));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.blog.controller;
+
+import com.blog.model.vo.StatsVO;
+import com.blog.service.StatsService;
+import com.blog.util.ApiResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping
+    public ApiResponse<StatsVO> stats() {
+        return ApiResponse.success(statsService.getStats());
+    }
+
+    @GetMapping("/caches")
+    public ApiResponse<Map<String, Map<String, Object>>> caches() {
+        return ApiResponse.success(statsService.getCacheStats());
+    }
+
+    @GetMapping("/executors")
+    public ApiResponse<Map<String, Map<String, Object>>> executors() {
+        return ApiResponse.success(statsService.getExecutorStats());
+    }
+}
@@ -20,6 +20,16 @@ public class ImportResult {
         return result;
     }
 
+    public static ImportResult accepted(Long recordId, String filename) {
+        ImportResult result = new ImportResult();
+        result.success = true;
+        result.message = "import queued";
+        result.recordId = recordId;
+        result.filename = filename;
+        result.status = "queued";
+        return result;
+    }
+
     public static ImportResult failure(String message) {
         ImportResult result = new ImportResult();
         result.success = false;
@@ -0,0 +1,17 @@
+package com.blog.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata restrictions for knowledge search; null fields do not filter.
+ * createdFrom is inclusive, createdTo exclusive.
+ */
+public record KnowledgeFilter(String sourceType, Long parentId, LocalDateTime createdFrom, LocalDateTime createdTo) {
+
+    public static final KnowledgeFilter NONE = new KnowledgeFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return (sourceType == null || sourceType.isBlank()) && parentId == null
+                && createdFrom == null && createdTo == null;
+    }
+}
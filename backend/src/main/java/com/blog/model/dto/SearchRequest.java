@@ -3,6 +3,9 @@ package com.blog.model.dto;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
 
 public class SearchRequest {
 
@@ -17,6 +20,38 @@ public class SearchRequest {
     @Max(1)
     private Float threshold = 0.7f;
 
+    /**
+     * Hybrid search weights of the vector and keyword branches in reciprocal rank fusion.
+     */
+    @Min(0)
+    @Max(10)
+    private Float vectorWeight = 1.0f;
+
+    @Min(0)
+    @Max(10)
+    private Float textWeight = 1.0f;
+
+    /**
+     * HNSW hnsw.ef_search for this query: higher improves recall at the cost of latency.
+     * Null uses the server default.
+     */
+    @Min(1)
+    @Max(1000)
+    private Integer efSearch;
+
+    /**
+     * Optional filters for vector / hybrid / unified search: one source type
+     * (pdf, markdown, external, ...), one import, and a created_at window [createdFrom, createdTo).
+     */
+    @Size(max = 50)
+    private String sourceType;
+
+    private Long parentId;
+
+    private LocalDateTime createdFrom;
+
+    private LocalDateTime createdTo;
+
     public String getQuery() {
         return query;
     }
@@ -40,4 +75,64 @@ public class SearchRequest {
     public void setThreshold(Float threshold) {
         this.threshold = threshold;
     }
+
+    public Float getVectorWeight() {
+        return vectorWeight;
+    }
+
+    public void setVectorWeight(Float vectorWeight) {
+        this.vectorWeight = vectorWeight;
+    }
+
+    public Float getTextWeight() {
+        return textWeight;
+    }
+
+    public void setTextWeight(Float textWeight) {
+        this.textWeight = textWeight;
+    }
+
+    public Integer getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(Integer efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public void setSourceType(String sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public KnowledgeFilter toFilter() {
+        return new KnowledgeFilter(sourceType, parentId, createdFrom, createdTo);
+    }
 }
\ No newline at end of file
@@ -33,6 +33,39 @@ public class ImportRecord {
     @Column(name = "chunks_count")
     private Integer chunksCount;
 
+    @Column(name = "chunks_processed")
+    private Integer chunksProcessed;
+
+    /**
+     * Import progress in percent (0-100).
+     */
+    @Column(name = "progress")
+    private Integer progress;
+
+    /**
+     * Chunks whose normalized text was already in the knowledge base (or earlier in the import).
+     */
+    @Column(name = "duplicate_chunks")
+    private Integer duplicateChunks;
+
+    /**
+     * Chunks whose embedding was within the dedup similarity of an existing chunk.
+     */
+    @Column(name = "near_duplicate_chunks")
+    private Integer nearDuplicateChunks;
+
+    /**
+     * Backend instance that queued and runs the import.
+     */
+    @Column(name = "worker_id", length = 64)
+    private String workerId;
+
+    /**
+     * Last heartbeat of that instance; an unfinished import whose heartbeat is stale was orphaned.
+     */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -111,6 +144,54 @@ public class ImportRecord {
         this.chunksCount = chunksCount;
     }
 
+    public Integer getChunksProcessed() {
+        return chunksProcessed;
+    }
+
+    public void setChunksProcessed(Integer chunksProcessed) {
+        this.chunksProcessed = chunksProcessed;
+    }
+
+    public Integer getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Integer progress) {
+        this.progress = progress;
+    }
+
+    public Integer getDuplicateChunks() {
+        return duplicateChunks;
+    }
+
+    public void setDuplicateChunks(Integer duplicateChunks) {
+        this.duplicateChunks = duplicateChunks;
+    }
+
+    public Integer getNearDuplicateChunks() {
+        return nearDuplicateChunks;
+    }
+
+    public void setNearDuplicateChunks(Integer nearDuplicateChunks) {
+        this.nearDuplicateChunks = nearDuplicateChunks;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    public void setWorkerId(String workerId) {
+        this.workerId = workerId;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
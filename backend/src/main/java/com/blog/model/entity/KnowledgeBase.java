@@ -1,7 +1,8 @@
 package com.blog.model.entity;
 
-import com.blog.util.VectorStringConverter;
+import com.blog.util.PGvectorType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 
@@ -16,9 +17,6 @@ public class KnowledgeBase {
     @Column(nullable = false, length = 500)
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String content;
-
     @Column(name = "chunk_content", nullable = false, columnDefinition = "TEXT")
     private String chunkContent;
 
@@ -29,10 +27,21 @@ public class KnowledgeBase {
     private Long parentId;
 
     /**
-     * Stored as PostgreSQL vector text format (e.g., "[0.1,0.2,...]").
-     * This keeps the entity simple while still matching the pgvector column type.
+     * Document holding the full body; see KnowledgeDocument.
+     */
+    @Column(name = "document_id")
+    private Long documentId;
+
+    /**
+     * Chunk this one duplicates when it was linked at ingest instead of embedded; null otherwise.
+     */
+    @Column(name = "duplicate_of")
+    private Long duplicateOf;
+
+    /**
+     * Mapped through PGvectorType, which binds and reads the pgvector column in binary form.
      */
-    @Convert(converter = VectorStringConverter.class)
+    @Type(PGvectorType.class)
     @Column(name = "embedding", columnDefinition = "vector(1024)")
     private float[] embedding;
 
@@ -79,14 +88,6 @@ public class KnowledgeBase {
         this.title = title;
     }
 
-    public String getContent() {
-        return content;
-    }
-
-    public void setContent(String content) {
-        this.content = content;
-    }
-
     public String getChunkContent() {
         return chunkContent;
     }
@@ -111,6 +112,22 @@ public class KnowledgeBase {
         this.parentId = parentId;
     }
 
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public Long getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    public void setDuplicateOf(Long duplicateOf) {
+        this.duplicateOf = duplicateOf;
+    }
+
     public float[] getEmbedding() {
         return embedding;
     }
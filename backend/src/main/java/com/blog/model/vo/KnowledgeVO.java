@@ -7,6 +7,7 @@ public class KnowledgeVO {
     private String content;
     private Double similarity;
     private String source;
+    private Double score;
 
     public KnowledgeVO() {
     }
@@ -58,4 +59,15 @@ public class KnowledgeVO {
     public void setSource(String source) {
         this.source = source;
     }
+
+    /**
+     * Fused hybrid search score; null for plain vector search.
+     */
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
 }
\ No newline at end of file
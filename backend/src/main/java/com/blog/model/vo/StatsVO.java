@@ -0,0 +1,98 @@
+package com.blog.model.vo;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class StatsVO {
+
+    private long knowledgeCount;
+    private long documentCount;
+    private long articleCount;
+    private long newsCount;
+    private Map<String, Long> knowledgeBySourceType;
+    private Map<String, Long> documentsBySourceType;
+    private Map<String, Long> importsByStatus;
+    private Map<String, Long> articlesByStatus;
+    private Map<String, Long> newsByFeatured;
+    private LocalDateTime generatedAt;
+
+    public long getKnowledgeCount() {
+        return knowledgeCount;
+    }
+
+    public void setKnowledgeCount(long knowledgeCount) {
+        this.knowledgeCount = knowledgeCount;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public void setDocumentCount(long documentCount) {
+        this.documentCount = documentCount;
+    }
+
+    public long getArticleCount() {
+        return articleCount;
+    }
+
+    public void setArticleCount(long articleCount) {
+        this.articleCount = articleCount;
+    }
+
+    public long getNewsCount() {
+        return newsCount;
+    }
+
+    public void setNewsCount(long newsCount) {
+        this.newsCount = newsCount;
+    }
+
+    public Map<String, Long> getKnowledgeBySourceType() {
+        return knowledgeBySourceType;
+    }
+
+    public void setKnowledgeBySourceType(Map<String, Long> knowledgeBySourceType) {
+        this.knowledgeBySourceType = knowledgeBySourceType;
+    }
+
+    public Map<String, Long> getDocumentsBySourceType() {
+        return documentsBySourceType;
+    }
+
+    public void setDocumentsBySourceType(Map<String, Long> documentsBySourceType) {
+        this.documentsBySourceType = documentsBySourceType;
+    }
+
+    public Map<String, Long> getImportsByStatus() {
+        return importsByStatus;
+    }
+
+    public void setImportsByStatus(Map<String, Long> importsByStatus) {
+        this.importsByStatus = importsByStatus;
+    }
+
+    public Map<String, Long> getArticlesByStatus() {
+        return articlesByStatus;
+    }
+
+    public void setArticlesByStatus(Map<String, Long> articlesByStatus) {
+        this.articlesByStatus = articlesByStatus;
+    }
+
+    public Map<String, Long> getNewsByFeatured() {
+        return newsByFeatured;
+    }
+
+    public void setNewsByFeatured(Map<String, Long> newsByFeatured) {
+        this.newsByFeatured = newsByFeatured;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
@@ -1,12 +1,16 @@
 package com.blog.parser;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 @Component
 public class PDFParser {
@@ -18,4 +22,32 @@ public class PDFParser {
             return stripper.getText(document);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stream the text of a PDF on disk, {@code pagesPerRange} pages at a time.
+     * The file is read through a buffered RandomAccessRead and PDFBox scratch data goes to
+     * temp files, so neither the file bytes nor the full extracted text are held in heap.
+     */
+    public void parsePages(Path file, int pagesPerRange, PageTextHandler handler) throws IOException {
+        try (RandomAccessRead source = new RandomAccessReadBufferedFile(file);
+             PDDocument document = Loader.loadPDF(source, IOUtils.createTempFileOnlyStreamCache())) {
+            int pageCount = document.getNumberOfPages();
+            int step = Math.max(1, pagesPerRange);
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int start = 1; start <= pageCount; start += step) {
+                int end = Math.min(pageCount, start + step - 1);
+                stripper.setStartPage(start);
+                stripper.setEndPage(end);
+                handler.accept(stripper.getText(document), end, pageCount);
+            }
+        }
+    }
+
+    /**
+     * Receives the text of consecutive page ranges while a PDF is streamed.
+     */
+    @FunctionalInterface
+    public interface PageTextHandler {
+        void accept(String text, int lastPage, int pageCount) throws IOException;
+    }
+}
@@ -0,0 +1,149 @@
+package com.blog.repository;
+
+import com.blog.util.CacheKeys;
+import com.blog.util.CacheStatsProvider;
+import com.blog.util.VectorUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store of model embeddings in the embedding_store table, keyed by the SHA-256
+ * of the normalized text (the same hash as knowledge_base.content_hash), the embedding model and the
+ * requested output dimensions (0 for the model's native size), so changing either never serves a
+ * vector of the wrong size.
+ * Lets re-imports and re-indexing of unchanged text skip the remote embedding call. Failures are
+ * logged and treated as misses so the store can never break embedding.
+ */
+@Repository
+public class EmbeddingStoreRepository implements CacheStatsProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingStoreRepository.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO embedding_store (content_hash, model, dimensions, embedding)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (content_hash, model, dimensions) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String model;
+    private final int dimensions;
+    private final boolean enabled;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public EmbeddingStoreRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.ai.openai.embedding.options.model:default}") String model,
+            @Value("${spring.ai.openai.embedding.options.dimensions:#{null}}") Integer dimensions,
+            @Value("${app.ai.embedding.store-enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.model = model;
+        this.dimensions = dimensions == null ? 0 : dimensions;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Stored embeddings for those of {@code texts} that have one, keyed by position in {@code texts}.
+     */
+    public Map<Integer, float[]> findAll(List<String> texts) {
+        Map<Integer, float[]> result = new HashMap<>();
+        if (!enabled || texts.isEmpty()) {
+            return result;
+        }
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int lookups = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text != null && !text.isBlank()) {
+                positions.computeIfAbsent(hash(text), key -> new ArrayList<>()).add(i);
+                lookups++;
+            }
+        }
+        if (lookups == 0) {
+            return result;
+        }
+        try {
+            jdbcTemplate.query("""
+                    SELECT content_hash, embedding
+                    FROM embedding_store
+                    WHERE model = ? AND dimensions = ? AND content_hash = ANY(?)
+                    """, rs -> {
+                float[] embedding = VectorUtil.toArray(rs.getObject("embedding"));
+                for (Integer position : positions.get(rs.getString("content_hash"))) {
+                    result.put(position, embedding);
+                }
+            }, model, dimensions, positions.keySet().toArray(new String[0]));
+        } catch (RuntimeException ex) {
+            log.warn("Embedding store lookup failed: {}", ex.getMessage());
+        }
+        hits.addAndGet(result.size());
+        misses.addAndGet(lookups - result.size());
+        return result;
+    }
+
+    public float[] find(String text) {
+        return findAll(List.of(text)).get(0);
+    }
+
+    /**
+     * Store embeddings the model produced for {@code texts} (same order); existing entries are kept.
+     */
+    public void saveAll(List<String> texts, List<float[]> embeddings) {
+        if (!enabled || texts.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            float[] embedding = embeddings.get(i);
+            if (embedding != null && embedding.length > 0) {
+                rows.add(new Object[]{hash(texts.get(i)), model, dimensions, VectorUtil.toPGvector(embedding)});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, new int[]{Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.OTHER});
+            writes.addAndGet(rows.size());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to persist {} embeddings: {}", rows.size(), ex.getMessage());
+        }
+    }
+
+    private static String hash(String text) {
+        return CacheKeys.sha256(CacheKeys.normalize(text));
+    }
+
+    @Override
+    public String cacheName() {
+        return "embeddingStore";
+    }
+
+    @Override
+    public Map<String, Object> cacheStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("model", model);
+        result.put("dimensions", dimensions);
+        result.put("enabled", enabled);
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        result.put("writes", writes.get());
+        return result;
+    }
+}
@@ -2,6 +2,49 @@ package com.blog.repository;
 
 import com.blog.model.entity.ImportRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface ImportRecordRepository extends JpaRepository<ImportRecord, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Renew the heartbeat of the unfinished imports owned by {@code workerId}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ImportRecord r SET r.heartbeatAt = :now
+            WHERE r.workerId = :workerId AND r.status IN :statuses
+            """)
+    int touchOwned(@Param("workerId") String workerId, @Param("statuses") Collection<String> statuses,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Ids of unfinished imports whose owner has not sent a heartbeat since {@code staleBefore}.
+     */
+    @Query("""
+            SELECT r.id FROM ImportRecord r
+            WHERE r.status IN :statuses AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)
+            """)
+    List<Long> findStaleIds(@Param("statuses") Collection<String> statuses,
+                            @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Fail an orphaned import unless it finished or its owner came back meanwhile; returns whether
+     * this call claimed it, so only one instance cleans it up.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ImportRecord r
+            SET r.status = 'failed', r.errorMessage = :message, r.completedAt = :now
+            WHERE r.id = :id AND r.status IN :statuses
+              AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)
+            """)
+    int claimStale(@Param("id") Long id, @Param("statuses") Collection<String> statuses,
+                   @Param("staleBefore") LocalDateTime staleBefore, @Param("message") String message,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,204 @@
+package com.blog.repository;
+
+import com.blog.util.CacheKeys;
+import com.blog.util.VectorUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Bulk writer for knowledge_base chunk rows.
+ * Every row gets the content_hash of its normalized text, which ingest deduplication looks up.
+ * Embeddings are bound as binary PGvector parameters. Rows are sent as JDBC statement batches (rewritten to multi-row INSERTs by the driver
+ * when {@code reWriteBatchedInserts=true}), so N chunks cost N / batch-size round-trips.
+ */
+@Repository
+public class KnowledgeChunkWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO knowledge_base (title, chunk_content, chunk_index, parent_id, document_id,
+                                        embedding, metadata, source_type, source_url, content_hash,
+                                        created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    /**
+     * Linked duplicates carry no embedding. Without an explicit target they point at the oldest
+     * original with the same content hash, which may have been inserted earlier in the transaction.
+     */
+    private static final String INSERT_LINK_SQL = """
+            INSERT INTO knowledge_base (title, chunk_content, chunk_index, parent_id, document_id,
+                                        metadata, source_type, source_url, content_hash, duplicate_of,
+                                        created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?,
+                    COALESCE(?, (SELECT id FROM knowledge_base
+                                 WHERE content_hash = ? AND duplicate_of IS NULL
+                                 ORDER BY id LIMIT 1)),
+                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    /**
+     * A chunk linked as a duplicate keeps no embedding of its own.
+     */
+    private static final String UPDATE_SQL = """
+            UPDATE knowledge_base
+            SET chunk_content = ?,
+                content_hash = ?,
+                embedding = ?,
+                duplicate_of = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+            """;
+
+    private static final String PROMOTE_SQL = """
+            UPDATE knowledge_base
+            SET embedding = ?,
+                duplicate_of = NULL,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+            """;
+
+    private static final String RELINK_SQL = """
+            UPDATE knowledge_base
+            SET duplicate_of = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE duplicate_of = ? AND id <> ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public KnowledgeChunkWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.knowledge.write-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Insert all chunks; joins the caller's transaction when one is active.
+     */
+    public void writeAll(List<Chunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, chunks, batchSize, this::bind);
+    }
+
+    /**
+     * Insert duplicate chunks as links to their originals ({@link Chunk#duplicateOf()}, or the
+     * original with the same text when null). Call after {@link #writeAll} of the same batch.
+     */
+    public void writeLinks(List<Chunk> links) {
+        if (links == null || links.isEmpty()) {
+            return;
+        }
+        // Sent one statement at a time: a rewritten multi-row INSERT could not see the originals
+        // its subquery looks up
+        for (Chunk link : links) {
+            jdbcTemplate.update(INSERT_LINK_SQL, ps -> bindLink(ps, link));
+        }
+    }
+
+    /**
+     * Delete every chunk row of a document and return their ids; joins the caller's transaction.
+     */
+    public List<Long> deleteByDocumentId(Long documentId) {
+        return jdbcTemplate.queryForList("DELETE FROM knowledge_base WHERE document_id = ? RETURNING id",
+                Long.class, documentId);
+    }
+
+    /**
+     * SHA-256 of the normalized chunk text, as stored in content_hash.
+     */
+    public static String contentHash(String chunkContent) {
+        return CacheKeys.sha256(CacheKeys.normalize(chunkContent));
+    }
+
+    /**
+     * Replace the text of a single chunk row, storing {@code embedding} or, when
+     * {@code duplicateOf} is set, linking the row to that original instead.
+     */
+    public void update(Long id, String chunkContent, float[] embedding, Long duplicateOf) {
+        jdbcTemplate.update(UPDATE_SQL, ps -> {
+            ps.setString(1, chunkContent);
+            ps.setString(2, contentHash(chunkContent));
+            ps.setObject(3, duplicateOf == null ? VectorUtil.toPGvector(embedding) : null, Types.OTHER);
+            ps.setObject(4, duplicateOf, Types.BIGINT);
+            ps.setLong(5, id);
+        });
+    }
+
+    /**
+     * Make {@code promotedId}, one of the duplicates linked to {@code originalId}, an original with
+     * {@code embedding}, and re-point the other duplicates of {@code originalId} to it.
+     */
+    public void promote(Long promotedId, Long originalId, float[] embedding) {
+        jdbcTemplate.update(PROMOTE_SQL, ps -> {
+            ps.setObject(1, VectorUtil.toPGvector(embedding), Types.OTHER);
+            ps.setLong(2, promotedId);
+        });
+        jdbcTemplate.update(RELINK_SQL, promotedId, originalId, promotedId);
+    }
+
+    private void bind(PreparedStatement ps, Chunk chunk) throws SQLException {
+        ps.setString(1, chunk.title());
+        ps.setString(2, chunk.chunkContent());
+        ps.setObject(3, chunk.chunkIndex(), Types.INTEGER);
+        ps.setObject(4, chunk.parentId(), Types.BIGINT);
+        ps.setObject(5, chunk.documentId(), Types.BIGINT);
+        ps.setObject(6, VectorUtil.toPGvector(chunk.embedding()), Types.OTHER);
+        ps.setString(7, chunk.metadata());
+        ps.setString(8, chunk.sourceType());
+        ps.setString(9, chunk.sourceUrl());
+        ps.setString(10, contentHash(chunk.chunkContent()));
+    }
+
+    private void bindLink(PreparedStatement ps, Chunk chunk) throws SQLException {
+        String contentHash = contentHash(chunk.chunkContent());
+        ps.setString(1, chunk.title());
+        ps.setString(2, chunk.chunkContent());
+        ps.setObject(3, chunk.chunkIndex(), Types.INTEGER);
+        ps.setObject(4, chunk.parentId(), Types.BIGINT);
+        ps.setObject(5, chunk.documentId(), Types.BIGINT);
+        ps.setString(6, chunk.metadata());
+        ps.setString(7, chunk.sourceType());
+        ps.setString(8, chunk.sourceUrl());
+        ps.setString(9, contentHash);
+        ps.setObject(10, chunk.duplicateOf(), Types.BIGINT);
+        ps.setString(11, contentHash);
+    }
+
+    /**
+     * One knowledge_base row to be written. The document body itself lives in
+     * knowledge_documents and is referenced by {@code documentId}; {@code duplicateOf} is only
+     * used by {@link #writeLinks}.
+     */
+    public record Chunk(
+            String title,
+            String chunkContent,
+            Integer chunkIndex,
+            Long parentId,
+            Long documentId,
+            float[] embedding,
+            String metadata,
+            String sourceType,
+            String sourceUrl,
+            Long duplicateOf) {
+
+        public Chunk withEmbedding(float[] embedding) {
+            return new Chunk(title, chunkContent, chunkIndex, parentId, documentId,
+                    embedding, metadata, sourceType, sourceUrl, duplicateOf);
+        }
+
+        public Chunk linkedTo(Long duplicateOf) {
+            return new Chunk(title, chunkContent, chunkIndex, parentId, documentId,
+                    null, metadata, sourceType, sourceUrl, duplicateOf);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.blog.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Writes a document body that was spooled elsewhere into knowledge_documents.content without
+ * holding it in memory as one String: the body is read and sent {@code app.import.body-write-chars}
+ * characters at a time, the first piece replacing the column and the rest appended to it. The
+ * driver materializes every bound value (setCharacterStream included), so bounded pieces are what
+ * keep the heap flat; each append rewrites the stored value, hence pieces are large.
+ */
+@Repository
+public class KnowledgeDocumentBodyWriter {
+
+    private static final String SET_SQL = """
+            UPDATE knowledge_documents
+            SET content = ?,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+            """;
+
+    private static final String APPEND_SQL = """
+            UPDATE knowledge_documents
+            SET content = content || ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pieceChars;
+
+    public KnowledgeDocumentBodyWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.import.body-write-chars:4194304}") int pieceChars) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pieceChars = Math.max(1, pieceChars);
+    }
+
+    /**
+     * Replace the body of document {@code id} with everything {@code body} yields. Run it in a
+     * transaction so readers never see a partly written body.
+     */
+    public void write(Long id, Reader body) throws IOException {
+        char[] buffer = new char[pieceChars];
+        boolean first = true;
+        int filled;
+        while ((filled = fill(body, buffer)) > 0 || first) {
+            jdbcTemplate.update(first ? SET_SQL : APPEND_SQL, new String(buffer, 0, filled), id);
+            first = false;
+            if (filled < buffer.length) {
+                return;
+            }
+        }
+    }
+
+    /** Read until the buffer is full or the reader is exhausted; returns the characters read. */
+    private static int fill(Reader reader, char[] buffer) throws IOException {
+        int filled = 0;
+        while (filled < buffer.length) {
+            int read = reader.read(buffer, filled, buffer.length - filled);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,17 @@
+package com.blog.repository;
+
+import com.blog.model.entity.KnowledgeDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface KnowledgeDocumentRepository extends JpaRepository<KnowledgeDocument, Long> {
+
+    /**
+     * Ids of the documents created by an import record, without loading their bodies.
+     */
+    @Query("SELECT d.id FROM KnowledgeDocument d WHERE d.parentId = :parentId")
+    List<Long> findIdsByParentId(@Param("parentId") Long parentId);
+}
@@ -0,0 +1,97 @@
+package com.blog.repository;
+
+import com.blog.util.VectorUtil;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads knowledge_base embeddings and the metadata search filters need, for building and
+ * syncing an in-process vector index.
+ */
+@Repository
+public class KnowledgeEmbeddingRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String COLUMNS = "id, embedding, source_type, parent_id, created_at, updated_at";
+
+    private static final RowMapper<EmbeddingRow> EMBEDDING_ROW_MAPPER = (rs, rowNum) -> new EmbeddingRow(
+            rs.getLong("id"),
+            VectorUtil.toArray(rs.getObject("embedding")),
+            rs.getString("source_type"),
+            rs.getObject("parent_id") == null ? null : rs.getLong("parent_id"),
+            rs.getTimestamp("created_at"),
+            rs.getTimestamp("updated_at"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public KnowledgeEmbeddingRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stream every row with an embedding in id order. Runs in a read-only transaction so the driver
+     * can use a cursor and hold only {@value #FETCH_SIZE} rows at a time.
+     */
+    public void forEach(Consumer<EmbeddingRow> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+            cursor.setFetchSize(FETCH_SIZE);
+            cursor.query("SELECT " + COLUMNS + " FROM knowledge_base WHERE embedding IS NOT NULL ORDER BY id",
+                    rs -> {
+                        consumer.accept(EMBEDDING_ROW_MAPPER.mapRow(rs, 0));
+                    });
+        });
+    }
+
+    public List<EmbeddingRow> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM knowledge_base WHERE embedding IS NOT NULL AND id = ANY(?)",
+                EMBEDDING_ROW_MAPPER, (Object) ids.toArray(new Long[0]));
+    }
+
+    /**
+     * Ids and update times of rows with an embedding changed after {@code since}.
+     */
+    public Map<Long, Timestamp> findUpdatedSince(Timestamp since) {
+        Map<Long, Timestamp> result = new HashMap<>();
+        jdbcTemplate.query("SELECT id, updated_at FROM knowledge_base WHERE updated_at > ? AND embedding IS NOT NULL",
+                rs -> {
+                    result.put(rs.getLong("id"), rs.getTimestamp("updated_at"));
+                }, since);
+        return result;
+    }
+
+    public List<Long> findAllIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM knowledge_base WHERE embedding IS NOT NULL", Long.class);
+    }
+
+    public Timestamp currentTimestamp() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP::timestamp", Timestamp.class);
+    }
+
+    public record EmbeddingRow(
+            long id,
+            float[] embedding,
+            String sourceType,
+            Long parentId,
+            Timestamp createdAt,
+            Timestamp updatedAt) {
+    }
+}
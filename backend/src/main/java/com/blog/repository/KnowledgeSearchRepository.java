@@ -0,0 +1,262 @@
+package com.blog.repository;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.util.VectorUtil;
+import com.pgvector.PGvector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC queries over knowledge_base that bind the query vector as a binary {@link PGvector}.
+ * Metadata filters are pushed into the candidate scan so the database can use
+ * idx_knowledge_source / idx_knowledge_parent / idx_knowledge_created_at or an iterative HNSW scan.
+ */
+@Repository
+public class KnowledgeSearchRepository {
+
+    /**
+     * Nearest neighbours first, in index order, then the similarity threshold on that candidate set;
+     * a threshold predicate in the scan itself would keep the planner from using the HNSW ordering.
+     * %s is the optional metadata WHERE clause.
+     */
+    private static final String SIMILAR_SQL = """
+            WITH candidates AS (
+                SELECT id, title, chunk_content, source_type, embedding <=> ? AS distance
+                FROM knowledge_base
+                %s
+                ORDER BY embedding <=> ?
+                LIMIT ?
+            )
+            SELECT id, title, chunk_content, source_type, 1 - distance AS similarity
+            FROM candidates
+            WHERE 1 - distance > ?
+            ORDER BY distance
+            """;
+
+    /**
+     * Quantized modes: candidates come from the halfvec / bit expression index (%2$s is its ORDER BY
+     * expression), then are re-ranked by full-precision cosine distance before the threshold applies.
+     */
+    private static final String QUANTIZED_SIMILAR_SQL = """
+            WITH candidates AS (
+                SELECT id, title, chunk_content, source_type, embedding
+                FROM knowledge_base
+                %1$s
+                ORDER BY %2$s
+                LIMIT ?
+            ), reranked AS (
+                SELECT id, title, chunk_content, source_type, embedding <=> ? AS distance
+                FROM candidates
+            )
+            SELECT id, title, chunk_content, source_type, 1 - distance AS similarity
+            FROM reranked
+            WHERE 1 - distance > ?
+            ORDER BY distance
+            LIMIT ?
+            """;
+
+    private static final String HALF_ORDER = "embedding::halfvec(1024) <=> ?::halfvec(1024)";
+
+    private static final String BINARY_ORDER = "binary_quantize(embedding)::bit(1024) <~> binary_quantize(?)";
+
+    /** pgvector's upper bound for hnsw.ef_search. */
+    private static final int MAX_EF_SEARCH = 1000;
+
+    /**
+     * Ranked full-text match on the search_vector GIN index; the query is tokenized with the same
+     * knowledge_search_terms() function as the stored column (Chinese bigrams, other words as-is).
+     * Linked duplicates are left out; their original is matched instead.
+     */
+    private static final String TEXT_SQL = """
+            SELECT id, title, chunk_content, source_type,
+                   ts_rank_cd(search_vector, query, 32) AS rank
+            FROM knowledge_base, plainto_tsquery('simple', knowledge_search_terms(?)) AS query
+            WHERE search_vector @@ query AND duplicate_of IS NULL%s
+            ORDER BY rank DESC, id
+            LIMIT ?
+            """;
+
+    private static final RowMapper<KnowledgeVO> KNOWLEDGE_VO_MAPPER = (rs, rowNum) -> new KnowledgeVO(
+            rs.getLong("id"),
+            rs.getString("title"),
+            rs.getString("chunk_content"),
+            rs.getObject("similarity") == null ? null : rs.getDouble("similarity"),
+            rs.getString("source_type"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final VectorIndexManager vectorIndexManager;
+    private final int rerankFactor;
+
+    public KnowledgeSearchRepository(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            VectorIndexManager vectorIndexManager,
+            @Value("${app.vector.rerank-factor:4}") int rerankFactor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.vectorIndexManager = vectorIndexManager;
+        this.rerankFactor = Math.max(1, rerankFactor);
+    }
+
+    /**
+     * Vector similarity search using the pgvector cosine distance operator.
+     * {@code efSearch} is applied with {@code SET LOCAL} semantics for this query only and is raised
+     * to the number of index candidates when lower, since HNSW never returns more than ef_search rows.
+     * In the halfvec / binary storage modes the index supplies {@code limit * rerankFactor} candidates.
+     * With a filter, pgvector 0.8+ scans the HNSW index iteratively until enough rows pass it.
+     */
+    public List<KnowledgeVO> searchSimilar(float[] embedding, float threshold, int limit, int efSearch,
+                                           KnowledgeFilter filter) {
+        PGvector vector = VectorUtil.toPGvector(embedding);
+        if (vector == null) {
+            return List.of();
+        }
+        VectorIndexManager.StorageMode mode = vectorIndexManager.activeMode();
+        int candidates = mode == VectorIndexManager.StorageMode.FULL ? limit : limit * rerankFactor;
+        String ef = Integer.toString(Math.min(MAX_EF_SEARCH, Math.max(efSearch, candidates)));
+
+        List<Object> filterArgs = new ArrayList<>();
+        String where = filterConditions(filter, filterArgs);
+        String whereClause = where.isEmpty() ? "" : "WHERE " + where;
+
+        List<Object> args = new ArrayList<>();
+        String sql;
+        if (mode == VectorIndexManager.StorageMode.FULL) {
+            sql = String.format(SIMILAR_SQL, whereClause);
+            args.add(vector);
+            args.addAll(filterArgs);
+            args.add(vector);
+            args.add(limit);
+            args.add(threshold);
+        } else {
+            String order = mode == VectorIndexManager.StorageMode.HALF ? HALF_ORDER : BINARY_ORDER;
+            sql = String.format(QUANTIZED_SIMILAR_SQL, whereClause, order);
+            args.addAll(filterArgs);
+            args.add(vector);
+            args.add(candidates);
+            args.add(vector);
+            args.add(threshold);
+            args.add(limit);
+        }
+
+        boolean iterativeScan = !where.isEmpty() && vectorIndexManager.iterativeScanSupported();
+        return readOnlyTransaction.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT set_config('hnsw.ef_search', ?, true)", String.class, ef);
+            if (iterativeScan) {
+                // Results are re-sorted by exact distance afterwards, so relaxed order is enough
+                jdbcTemplate.queryForObject("SELECT set_config('hnsw.iterative_scan', 'relaxed_order', true)",
+                        String.class);
+            }
+            return jdbcTemplate.query(sql, KNOWLEDGE_VO_MAPPER, args.toArray());
+        });
+    }
+
+    /**
+     * Keyword search returning at most {@code limit} chunks, best {@code ts_rank_cd} first.
+     * Every chunk containing all query terms counts as a match; similarity is left null since
+     * there is no semantic score.
+     */
+    public List<KnowledgeVO> searchText(String query, int limit, KnowledgeFilter filter) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        String where = filterConditions(filter, args);
+        args.add(limit);
+        String sql = String.format(TEXT_SQL, where.isEmpty() ? "" : " AND " + where);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new KnowledgeVO(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("chunk_content"),
+                null,
+                rs.getString("source_type")), args.toArray());
+    }
+
+    /**
+     * Chunks by id, in no particular order, with similarity left null; used to fill in results
+     * found by an in-process vector index.
+     */
+    public List<KnowledgeVO> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT id, title, chunk_content, source_type, NULL::float8 AS similarity
+                FROM knowledge_base
+                WHERE id = ANY(?)
+                """, KNOWLEDGE_VO_MAPPER, (Object) ids.toArray(new Long[0]));
+    }
+
+    /**
+     * Ids of the oldest non-duplicate chunk for each of {@code contentHashes} that is present.
+     */
+    public Map<String, Long> findIdsByContentHash(Collection<String> contentHashes) {
+        Map<String, Long> result = new HashMap<>();
+        if (contentHashes.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query("""
+                SELECT DISTINCT ON (content_hash) content_hash, id
+                FROM knowledge_base
+                WHERE content_hash = ANY(?) AND duplicate_of IS NULL
+                ORDER BY content_hash, id
+                """, rs -> {
+            result.put(rs.getString("content_hash"), rs.getLong("id"));
+        }, (Object) contentHashes.toArray(new String[0]));
+        return result;
+    }
+
+    /**
+     * Chunks linked to {@code originalId} as its duplicates, oldest first.
+     */
+    public List<KnowledgeVO> findDuplicatesOf(Long originalId) {
+        return jdbcTemplate.query("""
+                SELECT id, title, chunk_content, source_type, NULL::float8 AS similarity
+                FROM knowledge_base
+                WHERE duplicate_of = ?
+                ORDER BY id
+                """, KNOWLEDGE_VO_MAPPER, originalId);
+    }
+
+    /**
+     * AND-ed metadata predicates for {@code filter}, appending their bind values to {@code args};
+     * empty when nothing is filtered.
+     */
+    private static String filterConditions(KnowledgeFilter filter, List<Object> args) {
+        if (filter == null || filter.isEmpty()) {
+            return "";
+        }
+        List<String> conditions = new ArrayList<>();
+        if (filter.sourceType() != null && !filter.sourceType().isBlank()) {
+            conditions.add("source_type = ?");
+            args.add(filter.sourceType().trim());
+        }
+        if (filter.parentId() != null) {
+            conditions.add("parent_id = ?");
+            args.add(filter.parentId());
+        }
+        if (filter.createdFrom() != null) {
+            conditions.add("created_at >= ?");
+            args.add(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            conditions.add("created_at < ?");
+            args.add(filter.createdTo());
+        }
+        return String.join(" AND ", conditions);
+    }
+}
@@ -0,0 +1,92 @@
+package com.blog.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated listing of knowledge_base rows. Only whitelisted summary columns are
+ * selected; embedding and document bodies are never read.
+ */
+@Repository
+public class KnowledgeSummaryRepository {
+
+    /**
+     * Field name exposed to clients mapped to the SQL expression that produces it.
+     */
+    private static final Map<String, String> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", "id");
+        FIELDS.put("title", "title");
+        FIELDS.put("chunkIndex", "chunk_index");
+        FIELDS.put("parentId", "parent_id");
+        FIELDS.put("documentId", "document_id");
+        FIELDS.put("sourceType", "source_type");
+        FIELDS.put("sourceUrl", "source_url");
+        FIELDS.put("preview", "left(chunk_content, 200)");
+        FIELDS.put("createdAt", "created_at");
+        FIELDS.put("updatedAt", "updated_at");
+    }
+
+    public static final List<String> DEFAULT_FIELDS =
+            List.of("id", "title", "chunkIndex", "documentId", "sourceType", "createdAt");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public KnowledgeSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Rows with id greater than {@code afterId} (all rows when null), in id order.
+     * The id is always included so callers can pass the last one back as the next cursor.
+     *
+     * @throws IllegalArgumentException if a requested field is unknown
+     */
+    public List<Map<String, Object>> findPage(Long afterId, int size, Collection<String> fields) {
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String field : fields) {
+            if (!FIELDS.containsKey(field)) {
+                throw new IllegalArgumentException("unknown field: " + field);
+            }
+            if (!selected.contains(field)) {
+                selected.add(field);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < selected.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(FIELDS.get(selected.get(i))).append(" AS c").append(i);
+        }
+        sql.append(" FROM knowledge_base WHERE id > ? ORDER BY id LIMIT ?");
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> mapRow(rs, selected),
+                afterId == null ? 0L : afterId, size);
+    }
+
+    private static Map<String, Object> mapRow(ResultSet rs, List<String> selected) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < selected.size(); i++) {
+            Object value = rs.getObject(i + 1);
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            }
+            row.put(selected.get(i), value);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,50 @@
+package com.blog.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Dashboard counts computed with grouped count(*) queries in a single round-trip.
+ */
+@Repository
+public class StatsRepository {
+
+    private static final String COUNTS_SQL = """
+            SELECT 'knowledge' AS metric, coalesce(source_type, 'unknown') AS bucket, count(*) AS total
+            FROM knowledge_base GROUP BY 2
+            UNION ALL
+            SELECT 'documents', coalesce(source_type, 'unknown'), count(*)
+            FROM knowledge_documents GROUP BY 2
+            UNION ALL
+            SELECT 'imports', coalesce(status, 'unknown'), count(*)
+            FROM import_records GROUP BY 2
+            UNION ALL
+            SELECT 'articles', coalesce(status, 'unknown'), count(*)
+            FROM articles GROUP BY 2
+            UNION ALL
+            SELECT 'news', CASE WHEN is_featured THEN 'featured' ELSE 'regular' END, count(*)
+            FROM ai_news GROUP BY 2
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Counts per metric (knowledge, documents, imports, articles, news) and bucket
+     * (source type, status, or featured/regular).
+     */
+    public Map<String, Map<String, Long>> countAll() {
+        Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(COUNTS_SQL, rs -> {
+            counts.computeIfAbsent(rs.getString("metric"), k -> new LinkedHashMap<>())
+                    .put(rs.getString("bucket"), rs.getLong("total"));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,265 @@
+package com.blog.repository;
+
+import com.blog.util.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns the HNSW index that vector search runs against.
+ * <p>
+ * Besides the full-precision index, knowledge_base can be searched through expression indexes over
+ * {@code embedding::halfvec} (about half the size) or {@code binary_quantize(embedding)::bit}
+ * (about 1/32). The row keeps its full-precision vector, which the quantized modes use to re-rank
+ * their candidates. The index for the configured mode is built with CREATE INDEX CONCURRENTLY in the
+ * background after startup; until it is valid, searches keep using the full-precision index.
+ * An existing index whose m / ef_construction differ from app.vector.pgvector.* is rebuilt the same
+ * way under a temporary name and swapped in by renaming, so searches keep an index throughout.
+ */
+@Component
+public class VectorIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexManager.class);
+
+    /** Serializes index builds across application instances sharing the database. */
+    private static final long BUILD_LOCK_KEY = 0x6b625f766563L;
+
+    public enum StorageMode {
+        FULL("idx_knowledge_embedding_hnsw", "embedding vector_cosine_ops"),
+        HALF("idx_knowledge_embedding_halfvec", "(embedding::halfvec(1024)) halfvec_cosine_ops"),
+        BINARY("idx_knowledge_embedding_bit", "(binary_quantize(embedding)::bit(1024)) bit_hamming_ops");
+
+        private final String indexName;
+        private final String indexExpression;
+
+        StorageMode(String indexName, String indexExpression) {
+            this.indexName = indexName;
+            this.indexExpression = indexExpression;
+        }
+
+        public String indexName() {
+            return indexName;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageMode configuredMode;
+    private final boolean dropUnusedIndexes;
+    private final int m;
+    private final int efConstruction;
+    private final ExecutorService buildExecutor;
+    private volatile StorageMode activeMode = StorageMode.FULL;
+    private volatile boolean iterativeScanSupported;
+
+    public VectorIndexManager(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.vector.storage:full}") String storage,
+            @Value("${app.vector.drop-unused-indexes:false}") boolean dropUnusedIndexes,
+            @Value("${app.vector.pgvector.m:16}") int m,
+            @Value("${app.vector.pgvector.ef-construction:64}") int efConstruction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredMode = parseMode(storage);
+        this.dropUnusedIndexes = dropUnusedIndexes;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.buildExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("vector-index"));
+    }
+
+    /**
+     * Mode searches should use right now: the configured one once its index is ready, FULL before that.
+     */
+    public StorageMode activeMode() {
+        return activeMode;
+    }
+
+    /**
+     * Whether pgvector supports hnsw.iterative_scan (0.8.0+), so filtered searches can keep
+     * scanning the index until enough rows match instead of returning too few.
+     */
+    public boolean iterativeScanSupported() {
+        return iterativeScanSupported;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexInBackground() {
+        buildExecutor.execute(() -> {
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    ensureIndex(connection);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Vector index for storage mode {} is not available, using full precision: {}",
+                        configuredMode, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdownBuildExecutor() {
+        buildExecutor.shutdownNow();
+    }
+
+    private void ensureIndex(Connection connection) throws SQLException {
+        iterativeScanSupported = vectorExtensionAtLeast(connection, 0, 8);
+        if (!exists(connection, "SELECT 1 FROM pg_am WHERE amname = 'hnsw'")) {
+            // IVFFlat-only installs (pgvector < 0.5.0) have no quantized types either
+            return;
+        }
+        StorageMode target = configuredMode;
+        if (target != StorageMode.FULL
+                && !exists(connection, "SELECT 1 FROM pg_type WHERE typname = 'halfvec'")) {
+            log.warn("pgvector on this database does not support halfvec/bit (needs 0.7.0+), using full precision");
+            target = StorageMode.FULL;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_lock(" + BUILD_LOCK_KEY + ")");
+            try {
+                ensureIndex(connection, statement, target);
+                activeMode = target;
+
+                if (dropUnusedIndexes) {
+                    for (StorageMode mode : StorageMode.values()) {
+                        if (mode != target && indexValid(connection, mode.indexName) != null) {
+                            log.info("Dropping unused vector index {}", mode.indexName);
+                            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + mode.indexName);
+                        }
+                    }
+                }
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + BUILD_LOCK_KEY + ")");
+            }
+        }
+    }
+
+    /**
+     * Build the index for {@code mode} if it is missing or invalid, or rebuild it when it was built
+     * with other parameters. Runs outside a transaction, as CONCURRENTLY requires.
+     */
+    private void ensureIndex(Connection connection, Statement statement, StorageMode mode) throws SQLException {
+        String rebuilt = mode.indexName + "_rebuild";
+        String retired = mode.indexName + "_retired";
+        // Left behind by an interrupted rebuild
+        statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + rebuilt);
+        statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + retired);
+
+        Boolean valid = indexValid(connection, mode.indexName);
+        if (Boolean.FALSE.equals(valid)) {
+            // Left behind by an interrupted concurrent build
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + mode.indexName);
+        }
+        if (!Boolean.TRUE.equals(valid)) {
+            createIndex(statement, mode.indexName, mode);
+            return;
+        }
+        if (builtWith(connection, mode.indexName, m, efConstruction)) {
+            return;
+        }
+
+        log.info("Rebuilding vector index {} with m = {}, ef_construction = {}", mode.indexName, m, efConstruction);
+        createIndex(statement, rebuilt, mode);
+        // Renames only take a brief lock; the old index is dropped once nothing can plan with it
+        statement.execute("ALTER INDEX " + mode.indexName + " RENAME TO " + retired);
+        statement.execute("ALTER INDEX " + rebuilt + " RENAME TO " + mode.indexName);
+        statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + retired);
+    }
+
+    private void createIndex(Statement statement, String indexName, StorageMode mode) throws SQLException {
+        log.info("Building vector index {} for storage mode {}", indexName, mode);
+        long start = System.currentTimeMillis();
+        statement.execute(String.format(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON knowledge_base USING hnsw (%s) "
+                        + "WITH (m = %d, ef_construction = %d)",
+                indexName, mode.indexExpression, m, efConstruction));
+        log.info("Built vector index {} in {} ms", indexName, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether the index's storage parameters match; unset parameters are pgvector's defaults (16 / 64).
+     */
+    private static boolean builtWith(Connection connection, String indexName, int m, int efConstruction)
+            throws SQLException {
+        int actualM = 16;
+        int actualEfConstruction = 64;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT unnest(reloptions) FROM pg_class WHERE relname = ?")) {
+            statement.setString(1, indexName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    String[] option = rs.getString(1).split("=", 2);
+                    if (option.length == 2 && option[0].equals("m")) {
+                        actualM = Integer.parseInt(option[1]);
+                    } else if (option.length == 2 && option[0].equals("ef_construction")) {
+                        actualEfConstruction = Integer.parseInt(option[1]);
+                    }
+                }
+            }
+        }
+        return actualM == m && actualEfConstruction == efConstruction;
+    }
+
+    /**
+     * Whether the named index is valid, or null when it does not exist.
+     */
+    private static Boolean indexValid(Connection connection, String indexName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT i.indisvalid
+                FROM pg_class c
+                JOIN pg_index i ON i.indexrelid = c.oid
+                WHERE c.relname = ?
+                """)) {
+            statement.setString(1, indexName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static boolean vectorExtensionAtLeast(Connection connection, int major, int minor) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT extversion FROM pg_extension WHERE extname = 'vector'")) {
+            if (!rs.next()) {
+                return false;
+            }
+            String[] parts = rs.getString(1).split("\\.");
+            try {
+                int actualMajor = Integer.parseInt(parts[0]);
+                int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean exists(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next();
+        }
+    }
+
+    private static StorageMode parseMode(String storage) {
+        if ("half".equalsIgnoreCase(storage) || "halfvec".equalsIgnoreCase(storage)) {
+            return StorageMode.HALF;
+        }
+        if ("binary".equalsIgnoreCase(storage) || "bit".equalsIgnoreCase(storage)) {
+            return StorageMode.BINARY;
+        }
+        return StorageMode.FULL;
+    }
+}
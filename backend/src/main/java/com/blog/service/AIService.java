@@ -1,25 +1,34 @@
 package com.blog.service;
 
 import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.EmbeddingStoreRepository;
+import com.blog.util.CacheKeys;
+import com.blog.util.NamedThreadFactory;
+import com.blog.util.SwrCache;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-import java.net.URLEncoder;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 public class AIService {
@@ -31,13 +40,36 @@ public class AIService {
 
     private final ChatClient chatClient;
     private final EmbeddingModel embeddingModel;
+    private final EmbeddingCache embeddingCache;
+    private final EmbeddingStoreRepository embeddingStore;
+    private final WebSearchService webSearchService;
+    private final SwrCache<String> webSummaryCache;
+    private final String chatModel;
+    private final int embeddingBatchSize;
+    private final ExecutorService embeddingExecutor;
 
     public AIService(
             ObjectProvider<ChatClient.Builder> chatClientBuilderProvider,
-            ObjectProvider<EmbeddingModel> embeddingModelProvider) {
+            ObjectProvider<EmbeddingModel> embeddingModelProvider,
+            EmbeddingCache embeddingCache,
+            EmbeddingStoreRepository embeddingStore,
+            WebSearchService webSearchService,
+            @Qualifier("webSummaryCache") SwrCache<String> webSummaryCache,
+            @Value("${spring.ai.openai.chat.options.model:default}") String chatModel,
+            @Value("${app.ai.embedding.batch-size:32}") int embeddingBatchSize,
+            @Value("${app.ai.embedding.concurrency:4}") int embeddingConcurrency) {
         ChatClient.Builder builder = chatClientBuilderProvider.getIfAvailable();
         this.chatClient = builder != null ? builder.build() : null;
         this.embeddingModel = embeddingModelProvider.getIfAvailable();
+        this.embeddingCache = embeddingCache;
+        this.embeddingStore = embeddingStore;
+        this.webSearchService = webSearchService;
+        this.webSummaryCache = webSummaryCache;
+        this.chatModel = chatModel;
+        this.embeddingBatchSize = Math.max(1, embeddingBatchSize);
+        this.embeddingExecutor = Executors.newFixedThreadPool(
+                Math.max(1, embeddingConcurrency),
+                new NamedThreadFactory("embedding"));
 
         if (this.chatClient == null) {
             log.warn("ChatClient.Builder not available; AI summary will use fallback logic.");
@@ -71,22 +103,121 @@ public class AIService {
     }
 
     /**
-     * Generate embeddings. Uses EmbeddingModel when available.
+     * Generate embeddings. Uses EmbeddingModel when available; model results are cached
+     * in EmbeddingCache, fallback embeddings are not. On a cache miss the persistent embedding
+     * store is read before the model is called, but single (query) embeddings are not written to it.
      */
     public float[] generateEmbedding(String text) {
         if (text == null || text.isBlank()) {
             return new float[0];
         }
 
+        if (embeddingModel != null) {
+            float[] embedding = embeddingCache.get(text, this::embedWithModel);
+            if (embedding != null) {
+                return embedding;
+            }
+        }
+
+        return fallbackEmbedding(text);
+    }
+
+    private float[] embedWithModel(String text) {
+        float[] stored = embeddingStore.find(text);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            return embeddingModel.embed(text);
+        } catch (Exception ex) {
+            log.warn("EmbeddingModel failed, falling back to deterministic embedding: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Generate embeddings for many texts at once. Texts already in the persistent embedding
+     * store for the current model are not sent again; the rest go to the EmbeddingModel in
+     * batches of {@code app.ai.embedding.batch-size}, with at most
+     * {@code app.ai.embedding.concurrency} batches in flight, and the model's results are stored.
+     * Results keep the input order.
+     */
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return List.of();
+        }
+
+        float[][] embeddings = new float[texts.size()][];
+        Map<Integer, float[]> stored = embeddingModel == null ? Map.of() : embeddingStore.findAll(texts);
+        List<Integer> positions = new ArrayList<>(texts.size() - stored.size());
+        List<String> pending = new ArrayList<>(texts.size() - stored.size());
+        for (int i = 0; i < texts.size(); i++) {
+            float[] embedding = stored.get(i);
+            if (embedding != null) {
+                embeddings[i] = embedding;
+            } else {
+                positions.add(i);
+                pending.add(texts.get(i));
+            }
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(embeddings);
+        }
+
+        float[][] computed = new float[pending.size()][];
+        if (pending.size() <= embeddingBatchSize) {
+            embedBatch(pending, 0, pending.size(), computed);
+        } else {
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int start = 0; start < pending.size(); start += embeddingBatchSize) {
+                int from = start;
+                int to = Math.min(pending.size(), start + embeddingBatchSize);
+                batches.add(CompletableFuture.runAsync(() -> embedBatch(pending, from, to, computed), embeddingExecutor));
+            }
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+        }
+        for (int i = 0; i < positions.size(); i++) {
+            embeddings[positions.get(i)] = computed[i];
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    private void embedBatch(List<String> texts, int from, int to, float[][] embeddings) {
+        List<Integer> positions = new ArrayList<>(to - from);
+        List<String> inputs = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String text = texts.get(i);
+            if (text == null || text.isBlank()) {
+                embeddings[i] = new float[0];
+            } else {
+                positions.add(i);
+                inputs.add(text);
+            }
+        }
+        if (inputs.isEmpty()) {
+            return;
+        }
+
         if (embeddingModel != null) {
             try {
-                return embeddingModel.embed(text);
+                List<float[]> results = embeddingModel.embed(inputs);
+                if (results.size() == inputs.size()) {
+                    for (int i = 0; i < positions.size(); i++) {
+                        embeddings[positions.get(i)] = results.get(i);
+                    }
+                    embeddingStore.saveAll(inputs, results);
+                    return;
+                }
+                log.warn("EmbeddingModel returned {} embeddings for {} inputs, falling back.",
+                        results.size(), inputs.size());
             } catch (Exception ex) {
-                log.warn("EmbeddingModel failed, falling back to deterministic embedding: {}", ex.getMessage());
+                log.warn("EmbeddingModel batch failed, falling back to deterministic embedding: {}", ex.getMessage());
             }
         }
 
-        return fallbackEmbedding(text);
+        for (int i = 0; i < positions.size(); i++) {
+            embeddings[positions.get(i)] = fallbackEmbedding(inputs.get(i));
+        }
     }
 
     /**
@@ -97,21 +228,13 @@ public class AIService {
             return "";
         }
 
-        // Perform actual web search
-        String searchContext = performWebSearch(query);
-
-        if (chatClient != null) {
-            try {
-                return chatClient.prompt()
-                        .system("You are a research assistant. Provide a short, direct summary based on the provided search results.")
-                        .user("Query: " + query + "\n\nSearch Results:\n" + searchContext)
-                        .call()
-                        .content();
-            } catch (Exception ex) {
-                log.warn("ChatClient web summary failed, falling back: {}", ex.getMessage());
-            }
+        String summary = webSummaryCache.get(summaryKey("web", query), () -> summarizeWebSearch(query));
+        if (summary != null) {
+            return summary;
         }
 
+        // Perform actual web search (served from the result cache when the summary step just ran)
+        String searchContext = formatSearchResults(webSearchService.search(List.of(query)), false);
         return "Web search results for: " + query + "\n\n" + searchContext;
     }
 
@@ -124,195 +247,243 @@ public class AIService {
             return "";
         }
 
-        // Strategy to improve relevance for tech topics:
-        // 1. Search for original query
-        // 2. Search for query + " AI" (if not already present)
-        // Combine results
-        StringBuilder combinedResults = new StringBuilder();
+        String summary = webSummaryCache.get(summaryKey("news", query), () -> summarizeNews(query));
+        if (summary != null) {
+            return summary;
+        }
 
-        String searchResults1 = performWebSearch(query);
-        combinedResults.append("--- Search Query: ").append(query).append(" ---\n");
-        combinedResults.append(searchResults1).append("\n\n");
+        String combinedResults = formatSearchResults(webSearchService.search(newsQueries(query)), true);
+        if (chatClient != null) {
+            return "AI服务暂时不可用，以下是原始搜索结果：\n\n" + combinedResults;
+        }
+        return "## 📰 搜索结果 (无AI总结)\n\n" + combinedResults;
+    }
 
-        if (!query.toLowerCase().contains("ai")) {
-            String queryAi = query + " AI";
-            String searchResults2 = performWebSearch(queryAi);
-            combinedResults.append("--- Search Query: ").append(queryAi).append(" ---\n");
-            combinedResults.append(searchResults2).append("\n\n");
+    /**
+     * LLM summary of a web search, or null (not cached) when no summary could be produced.
+     */
+    private String summarizeWebSearch(String query) {
+        if (chatClient == null) {
+            return null;
         }
+        String searchContext = formatSearchResults(webSearchService.search(List.of(query)), false);
+        try {
+            return chatClient.prompt()
+                    .system("You are a research assistant. Provide a short, direct summary based on the provided search results.")
+                    .user("Query: " + query + "\n\nSearch Results:\n" + searchContext)
+                    .call()
+                    .content();
+        } catch (Exception ex) {
+            log.warn("ChatClient web summary failed, falling back: {}", ex.getMessage());
+            return null;
+        }
+    }
 
-        if (chatClient != null) {
-            try {
-                // Include current date to help AI focus on latest information
-                java.time.LocalDateTime now = java.time.LocalDateTime.now();
-                java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter
-                        .ofPattern("yyyy年MM月dd日 HH:mm");
-                String currentTime = now.format(formatter);
+    /**
+     * LLM news summary with sources, or null (not cached) when no summary could be produced.
+     */
+    private String summarizeNews(String query) {
+        if (chatClient == null) {
+            return null;
+        }
+        String combinedResults = formatSearchResults(webSearchService.search(newsQueries(query)), true);
+        try {
+            // Include current date to help AI focus on latest information
+            java.time.LocalDateTime now = java.time.LocalDateTime.now();
+            java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter
+                    .ofPattern("yyyy年MM月dd日 HH:mm");
+            String currentTime = now.format(formatter);
 
-                String systemPrompt = """
-                        你是一个专业的新闻研究助手。当前时间是：%s
+            String systemPrompt = """
+                    你是一个专业的新闻研究助手。当前时间是：%s
 
-                        请基于以下提供的【真实网络搜索结果】，总结关于用户查询的最新新闻和资讯。
-                        如果搜索结果中包含特定软件、游戏或项目的具体信息，请准确描述，不要编造。
+                    请基于以下提供的【真实网络搜索结果】，总结关于用户查询的最新新闻和资讯。
+                    如果搜索结果中包含特定软件、游戏或项目的具体信息，请准确描述，不要编造。
 
-                        用户查询: %s
+                    用户查询: %s
 
-                        【搜索策略说明】
-                        为了获取更准确的结果，系统分别搜索了"%s"和"%s AI"（如果是科技相关词汇）。请综合这两部分结果进行回答。
-                        如果结果中包含官方网站或项目主页，请优先提及。
+                    【搜索策略说明】
+                    为了获取更准确的结果，系统分别搜索了"%s"和"%s AI"（如果是科技相关词汇）。请综合这两部分结果进行回答。
+                    如果结果中包含官方网站或项目主页，请优先提及。
 
-                        搜索结果：
-                        %s
+                    搜索结果：
+                    %s
 
-                        请按以下格式回复：
+                    请按以下格式回复：
 
-                        ## 📰 相关新闻摘要（截至 %s）
+                    ## 📰 相关新闻摘要（截至 %s）
 
-                        [基于搜索结果，总结与该话题相关的最新动态和重要信息，大约200-300字。如果搜索结果显示是关于某个具体项目（如OpenClaw重制版游戏、OpenClaw AI等），请准确说明其性质]
+                    [基于搜索结果，总结与该话题相关的最新动态和重要信息，大约200-300字。如果搜索结果显示是关于某个具体项目（如OpenClaw重制版游戏、OpenClaw AI等），请准确说明其性质]
 
-                        ## 🔗 建议查看的来源
+                    ## 🔗 建议查看的来源
 
-                        [列出搜索结果中提到的网站，特别是官方网站、GitHub仓库或权威新闻源]
+                    [列出搜索结果中提到的网站，特别是官方网站、GitHub仓库或权威新闻源]
 
-                        ## 💡 关键要点
+                    ## 💡 关键要点
 
-                        - 要点1
-                        - 要点2
-                        - 要点3
+                    - 要点1
+                    - 要点2
+                    - 要点3
 
-                        ⚠️ **时效性提醒**：以上信息基于实时网络搜索结果摘要。
-                        """.formatted(currentTime, query, query, query + " AI", combinedResults.toString(),
-                        currentTime);
+                    ⚠️ **时效性提醒**：以上信息基于实时网络搜索结果摘要。
+                    """.formatted(currentTime, query, query, query + " AI", combinedResults,
+                    currentTime);
 
-                return chatClient.prompt()
-                        .system(systemPrompt)
-                        .user("请搜索并总结关于以下话题的最新新闻和资讯（特别关注最近发生的事件）：" + query)
-                        .call()
-                        .content();
-            } catch (Exception ex) {
-                log.warn("ChatClient news search failed, falling back: {}", ex.getMessage());
-                return "AI服务暂时不可用，以下是原始搜索结果：\n\n" + combinedResults.toString();
-            }
+            return chatClient.prompt()
+                    .system(systemPrompt)
+                    .user("请搜索并总结关于以下话题的最新新闻和资讯（特别关注最近发生的事件）：" + query)
+                    .call()
+                    .content();
+        } catch (Exception ex) {
+            log.warn("ChatClient news search failed, falling back: {}", ex.getMessage());
+            return null;
         }
+    }
 
-        return "## 📰 搜索结果 (无AI总结)\n\n" + combinedResults.toString();
+    /**
+     * Strategy to improve relevance for tech topics:
+     * 1. Search for original query
+     * 2. Search for query + " AI" (if not already present)
+     * Both are fetched concurrently and combined, duplicates removed by URL.
+     */
+    private List<String> newsQueries(String query) {
+        List<String> queries = new ArrayList<>();
+        queries.add(query);
+        if (!query.toLowerCase().contains("ai")) {
+            queries.add(query + " AI");
+        }
+        return queries;
     }
 
-    private String performWebSearch(String query) {
-        StringBuilder sb = new StringBuilder();
+    private String summaryKey(String kind, String query) {
+        return kind + ":" + chatModel + ":" + CacheKeys.sha256(CacheKeys.normalize(query));
+    }
 
-        // 1. Try scraping cn.bing.com (Web Search)
-        try {
-            String searchUrl = "https://cn.bing.com/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
-
-            Document doc = Jsoup.connect(searchUrl)
-                    .userAgent(
-                            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
-                    .header("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8")
-                    .header("Cookie", "SRCHHPGUSR=CW=1600&CH=900; _EDGE_S=F=1; MUIDB=1")
-                    .timeout(6000)
-                    .get();
-
-            Elements results = doc.select("li.b_algo");
-            int count = 0;
-
-            for (Element result : results) {
-                if (count >= 6)
-                    break;
-                Element titleEl = result.selectFirst("h2 a");
-                Element snippetEl = result.selectFirst(".b_caption p");
-                if (snippetEl == null)
-                    snippetEl = result.selectFirst(".b_algoSlug");
-
-                if (titleEl != null) {
-                    sb.append(count + 1).append(". ").append(titleEl.text()).append("\n");
-                    if (snippetEl != null) {
-                        sb.append("   Snippet: ").append(snippetEl.text()).append("\n");
-                    }
-                    String url = titleEl.attr("href");
-                    if (url != null && !url.isEmpty()) {
-                        sb.append("   Source: ").append(url).append("\n");
-                    }
-                    sb.append("\n");
-                    count++;
+    /**
+     * Render search results as the numbered text block the summarization prompts expect,
+     * one section per query when {@code withHeaders} is set.
+     */
+    private String formatSearchResults(Map<String, List<WebSearchService.WebSearchResult>> resultsByQuery,
+                                       boolean withHeaders) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<WebSearchService.WebSearchResult>> entry : resultsByQuery.entrySet()) {
+            if (withHeaders) {
+                sb.append("--- Search Query: ").append(entry.getKey()).append(" ---\n");
+            }
+            List<WebSearchService.WebSearchResult> results = entry.getValue();
+            if (results.isEmpty()) {
+                sb.append("未找到相关搜索结果 (Web/News)。\n\n");
+                continue;
+            }
+            int index = 1;
+            for (WebSearchService.WebSearchResult result : results) {
+                sb.append(index++).append(". ").append(result.title()).append("\n");
+                if (!result.snippet().isEmpty()) {
+                    sb.append("   Snippet: ").append(result.snippet()).append("\n");
+                }
+                if (result.url() != null && !result.url().isEmpty()) {
+                    sb.append("   Source: ").append(result.url()).append("\n");
                 }
+                sb.append("\n");
             }
-        } catch (Exception e) {
-            log.warn("Bing Web Search (cn.bing.com) failed: {}", e.getMessage());
         }
+        return sb.toString();
+    }
 
-        // 2. Fallback: Try Bing News RSS if web scraping yielded no results
-        if (sb.length() == 0) {
-            try {
-                String rssUrl = "https://cn.bing.com/news/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
-                        + "&format=rss";
-                Document rssDoc = Jsoup.connect(rssUrl)
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64)")
-                        .parser(org.jsoup.parser.Parser.xmlParser())
-                        .timeout(6000)
-                        .get();
-
-                Elements items = rssDoc.select("item");
-                int count = 0;
-                sb.append("--- Bing News RSS Fallback results ---\n");
-
-                for (Element item : items) {
-                    if (count >= 6)
-                        break;
-                    String title = item.select("title").text();
-                    String link = item.select("link").text();
-                    String desc = item.select("description").text(); // RSS desc might be HTML
-
-                    if (!title.isEmpty()) {
-                        sb.append(count + 1).append(". ").append(title).append("\n");
-                        if (!desc.isEmpty()) {
-                            // Strip basic HTML from desc if present
-                            sb.append("   Snippet: ").append(Jsoup.parse(desc).text()).append("\n");
-                        }
-                        sb.append("   Source: ").append(link).append("\n\n");
-                        count++;
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("Bing News RSS failed: {}", e.getMessage());
-                return "搜索服务全线繁忙 (Bing/RSS 均无法连接)。错误: " + e.getMessage();
-            }
+    public String generateKnowledgeAnswer(String question, List<KnowledgeVO> sources) {
+        if (question == null || question.isBlank()) {
+            return "";
         }
 
-        if (sb.length() == 0) {
-            return "未找到相关搜索结果 (Web/News)。";
+        String answer = answerWithModel(question, sources);
+        return answer != null ? answer : fallbackKnowledgeAnswer(buildContext(sources));
+    }
+
+    /**
+     * Knowledge answer from the chat model, or null when the model is unavailable or fails.
+     */
+    String answerWithModel(String question, List<KnowledgeVO> sources) {
+        if (chatClient == null) {
+            return null;
+        }
+        try {
+            return knowledgePrompt(question, buildContext(sources))
+                    .call()
+                    .content();
+        } catch (Exception ex) {
+            log.warn("ChatClient knowledge answer failed, falling back: {}", ex.getMessage());
+            return null;
         }
+    }
 
-        return sb.toString();
+    public Flux<String> streamKnowledgeAnswer(String question, List<KnowledgeVO> sources) {
+        return streamKnowledgeAnswer(question, sources, answer -> {
+        });
     }
 
-    public String generateKnowledgeAnswer(String question, List<KnowledgeVO> sources) {
+    /**
+     * Streaming variant of {@link #generateKnowledgeAnswer}: emits answer tokens as the model
+     * produces them. If the model fails before emitting anything, the fallback answer is emitted
+     * instead; a failure mid-answer is propagated as an error. {@code onModelAnswer} receives the
+     * full text only when the model completed the answer normally.
+     */
+    public Flux<String> streamKnowledgeAnswer(String question, List<KnowledgeVO> sources,
+                                              Consumer<String> onModelAnswer) {
         if (question == null || question.isBlank()) {
-            return "";
+            return Flux.empty();
         }
 
         String context = buildContext(sources);
-        if (chatClient != null) {
-            try {
-                return chatClient.prompt()
-                        .system(
-                                "You are a helpful assistant. Answer the question using the provided knowledge base snippets. "
-                                        + "If the answer is not in the snippets, say you do not know. "
-                                        + "Keep the answer concise and in Chinese.")
-                        .user("问题：" + question + "\n\n知识库片段：\n" + context)
-                        .call()
-                        .content();
-            } catch (Exception ex) {
-                log.warn("ChatClient knowledge answer failed, falling back: {}", ex.getMessage());
-            }
+        if (chatClient == null) {
+            return Flux.just(fallbackKnowledgeAnswer(context));
         }
 
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            StringBuilder answer = new StringBuilder();
+            return knowledgePrompt(question, context)
+                    .stream()
+                    .content()
+                    .doOnNext(token -> {
+                        emitted.set(true);
+                        answer.append(token);
+                    })
+                    .doOnComplete(() -> onModelAnswer.accept(answer.toString()))
+                    .onErrorResume(ex -> {
+                        if (emitted.get()) {
+                            return Flux.error(ex);
+                        }
+                        log.warn("ChatClient knowledge stream failed, falling back: {}", ex.getMessage());
+                        return Flux.just(fallbackKnowledgeAnswer(context));
+                    });
+        });
+    }
+
+    private ChatClient.ChatClientRequestSpec knowledgePrompt(String question, String context) {
+        return chatClient.prompt()
+                .system(
+                        "You are a helpful assistant. Answer the question using the provided knowledge base snippets. "
+                                + "If the answer is not in the snippets, say you do not know. "
+                                + "Keep the answer concise and in Chinese.")
+                .user("问题：" + question + "\n\n知识库片段：\n" + context);
+    }
+
+    String fallbackKnowledgeAnswer(List<KnowledgeVO> sources) {
+        return fallbackKnowledgeAnswer(buildContext(sources));
+    }
+
+    private String fallbackKnowledgeAnswer(String context) {
         if (context.isBlank()) {
             return "知识库暂无相关内容。";
         }
         return fallbackSummary(context);
     }
 
+    @PreDestroy
+    public void shutdownEmbeddingExecutor() {
+        embeddingExecutor.shutdown();
+    }
+
     private String fallbackSummary(String content) {
         int maxLength = Math.min(content.length(), 200);
         return content.substring(0, maxLength).trim();
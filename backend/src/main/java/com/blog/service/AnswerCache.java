@@ -0,0 +1,222 @@
+package com.blog.service;
+
+import com.blog.util.CacheKeys;
+import com.blog.util.CacheStatsProvider;
+import com.blog.util.VectorMath;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of knowledge-chat answers. An answer is keyed by chat model, normalized question and the
+ * sorted ids of the chunks it was generated from, so it is reused only for the same question over
+ * the same retrieved context. A reverse index from chunk id to entries drops every answer built on
+ * a chunk once a change to that chunk commits.
+ * <p>
+ * With {@code app.cache.answer.semantic-threshold} above zero, a question that misses exactly may
+ * still reuse an answer for the same sources whose question embedding has at least that cosine similarity.
+ */
+@Component
+public class AnswerCache implements CacheStatsProvider {
+
+    private final String model;
+    private final double semanticThreshold;
+    private final Cache<String, CachedAnswer> answers;
+    private final Map<Long, Set<String>> keysBySource = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> keysBySourceSet = new ConcurrentHashMap<>();
+    private final AtomicLong semanticHits = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong epoch = new AtomicLong();
+
+    public AnswerCache(
+            @Value("${spring.ai.openai.chat.options.model:default}") String model,
+            @Value("${app.cache.answer.max-size:2000}") long maxSize,
+            @Value("${app.cache.answer.ttl-minutes:720}") long ttlMinutes,
+            @Value("${app.cache.answer.semantic-threshold:0}") double semanticThreshold) {
+        this.model = model;
+        this.semanticThreshold = semanticThreshold;
+        this.answers = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, ttlMinutes)))
+                // A replaced key is still cached (and re-indexed by put), so only removals drop it from the index
+                .removalListener((String key, CachedAnswer answer, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(key, answer);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public boolean isSemanticLookupEnabled() {
+        return semanticThreshold > 0;
+    }
+
+    /**
+     * Cached answer for the question over these sources, or null.
+     *
+     * @param questionEmbedding used only for the near-duplicate lookup; may be null
+     */
+    public String get(String question, float[] questionEmbedding, List<Long> sourceIds) {
+        String sourceSet = sourceSetKey(sourceIds);
+        CachedAnswer exact = answers.getIfPresent(key(question, sourceSet));
+        if (exact != null) {
+            return exact.answer();
+        }
+        if (semanticThreshold <= 0 || questionEmbedding == null || questionEmbedding.length == 0) {
+            return null;
+        }
+
+        CachedAnswer best = null;
+        double bestSimilarity = semanticThreshold;
+        for (String candidateKey : keysBySourceSet.getOrDefault(sourceSet, Set.of())) {
+            CachedAnswer candidate = answers.asMap().get(candidateKey);
+            if (candidate == null || candidate.questionEmbedding() == null) {
+                continue;
+            }
+            double similarity = cosine(questionEmbedding, candidate.questionEmbedding());
+            if (similarity >= bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        if (best != null) {
+            semanticHits.incrementAndGet();
+            return best.answer();
+        }
+        return null;
+    }
+
+    /**
+     * Current invalidation epoch; capture it before generating an answer and pass it to {@link #put}.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Cache an answer, unless knowledge was invalidated since {@code epochAtStart}: the answer may then
+     * have been generated from chunk text that has since changed.
+     */
+    public void put(String question, float[] questionEmbedding, List<Long> sourceIds, String answer, long epochAtStart) {
+        if (answer == null || answer.isBlank() || epoch.get() != epochAtStart) {
+            return;
+        }
+        String sourceSet = sourceSetKey(sourceIds);
+        String key = key(question, sourceSet);
+        CachedAnswer cached = new CachedAnswer(answer, sourceSet, sortedIds(sourceIds), questionEmbedding);
+        for (Long id : cached.sourceIds()) {
+            keysBySource.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        keysBySourceSet.computeIfAbsent(sourceSet, k -> ConcurrentHashMap.newKeySet()).add(key);
+        answers.put(key, cached);
+        // An invalidation between the check above and the put may have missed this key
+        if (epoch.get() != epochAtStart) {
+            answers.invalidate(key);
+        }
+    }
+
+    /**
+     * Drop every answer generated from any of the given chunks.
+     */
+    public void invalidateSources(Iterable<Long> chunkIds) {
+        epoch.incrementAndGet();
+        for (Long id : chunkIds) {
+            Set<String> keys = keysBySource.remove(id);
+            if (keys != null && !keys.isEmpty()) {
+                invalidations.addAndGet(keys.size());
+                answers.invalidateAll(keys);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        invalidateSources(event.chunkIds());
+    }
+
+    @Override
+    public String cacheName() {
+        return "answer";
+    }
+
+    @Override
+    public Map<String, Object> cacheStats() {
+        CacheStats stats = answers.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("model", model);
+        result.put("size", answers.estimatedSize());
+        result.put("hits", stats.hitCount() + semanticHits.get());
+        result.put("semanticHits", semanticHits.get());
+        result.put("misses", stats.missCount() - semanticHits.get());
+        result.put("invalidations", invalidations.get());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private void unindex(String key, CachedAnswer answer) {
+        // The listener runs asynchronously; skip keys that were cached again in the meantime
+        if (key == null || answer == null || answers.asMap().containsKey(key)) {
+            return;
+        }
+        for (Long id : answer.sourceIds()) {
+            Set<String> keys = keysBySource.get(id);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysBySource.remove(id, keys);
+                }
+            }
+        }
+        Set<String> siblings = keysBySourceSet.get(answer.sourceSet());
+        if (siblings != null) {
+            siblings.remove(key);
+            if (siblings.isEmpty()) {
+                keysBySourceSet.remove(answer.sourceSet(), siblings);
+            }
+        }
+    }
+
+    private String key(String question, String sourceSet) {
+        return CacheKeys.normalize(question) + '\u0000' + sourceSet;
+    }
+
+    private String sourceSetKey(List<Long> sourceIds) {
+        return model + '\u0000' + sortedIds(sourceIds);
+    }
+
+    private static List<Long> sortedIds(List<Long> sourceIds) {
+        List<Long> ids = new ArrayList<>();
+        for (Long id : sourceIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        return VectorMath.cosine(a, b);
+    }
+
+    private record CachedAnswer(String answer, String sourceSet, List<Long> sourceIds, float[] questionEmbedding) {
+    }
+}
@@ -3,7 +3,9 @@ package com.blog.service;
 import com.blog.model.dto.ChatResponse;
 import com.blog.model.vo.KnowledgeVO;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -14,21 +16,73 @@ public class ChatService {
 
     private final SearchService searchService;
     private final AIService aiService;
+    private final AnswerCache answerCache;
 
-    public ChatService(SearchService searchService, AIService aiService) {
+    public ChatService(SearchService searchService, AIService aiService, AnswerCache answerCache) {
         this.searchService = searchService;
         this.aiService = aiService;
+        this.answerCache = answerCache;
     }
 
     public ChatResponse chatWithKnowledge(String query, Integer limit, Float threshold) {
-        int safeLimit = limit == null ? DEFAULT_LIMIT : limit;
-        float safeThreshold = threshold == null ? DEFAULT_THRESHOLD : threshold;
-        List<KnowledgeVO> sources = searchService.vectorSearch(query, safeLimit, safeThreshold);
-        String answer = aiService.generateKnowledgeAnswer(query, sources);
+        List<KnowledgeVO> sources = retrieve(query, limit, threshold);
+        List<Long> sourceIds = sourceIds(sources);
+        float[] questionEmbedding = questionEmbedding(query);
+        String answer = answerCache.get(query, questionEmbedding, sourceIds);
+        if (answer == null) {
+            long epoch = answerCache.epoch();
+            answer = aiService.answerWithModel(query, sources);
+            if (answer != null) {
+                answerCache.put(query, questionEmbedding, sourceIds, answer, epoch);
+            } else {
+                answer = aiService.fallbackKnowledgeAnswer(sources);
+            }
+        }
 
         ChatResponse response = new ChatResponse();
         response.setAnswer(answer);
         response.setSources(sources);
         return response;
     }
+
+    /**
+     * Retrieve sources synchronously and return them with a lazily started answer stream.
+     * Nothing is sent to the chat model until the answer is subscribed to.
+     */
+    public KnowledgeStream streamWithKnowledge(String query, Integer limit, Float threshold) {
+        List<KnowledgeVO> sources = retrieve(query, limit, threshold);
+        List<Long> sourceIds = sourceIds(sources);
+        float[] questionEmbedding = questionEmbedding(query);
+        String cached = answerCache.get(query, questionEmbedding, sourceIds);
+        if (cached != null) {
+            return new KnowledgeStream(sources, Flux.just(cached));
+        }
+
+        long epoch = answerCache.epoch();
+        Flux<String> answer = aiService.streamKnowledgeAnswer(query, sources,
+                text -> answerCache.put(query, questionEmbedding, sourceIds, text, epoch));
+        return new KnowledgeStream(sources, answer);
+    }
+
+    private float[] questionEmbedding(String query) {
+        // Served from the embedding cache: retrieval has just embedded the same query
+        return answerCache.isSemanticLookupEnabled() ? aiService.generateEmbedding(query) : null;
+    }
+
+    private static List<Long> sourceIds(List<KnowledgeVO> sources) {
+        List<Long> ids = new ArrayList<>(sources.size());
+        for (KnowledgeVO source : sources) {
+            ids.add(source.getId());
+        }
+        return ids;
+    }
+
+    private List<KnowledgeVO> retrieve(String query, Integer limit, Float threshold) {
+        int safeLimit = limit == null ? DEFAULT_LIMIT : limit;
+        float safeThreshold = threshold == null ? DEFAULT_THRESHOLD : threshold;
+        return searchService.vectorSearch(query, safeLimit, safeThreshold);
+    }
+
+    public record KnowledgeStream(List<KnowledgeVO> sources, Flux<String> answer) {
+    }
 }
@@ -0,0 +1,222 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.KnowledgeChunkWriter;
+import com.blog.repository.KnowledgeSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ingest-time deduplication of knowledge chunks, run before a batch is written.
+ * A chunk whose normalized text hash is already stored (or appears earlier in the batch) is an
+ * exact duplicate and is never embedded; the rest are embedded and a chunk whose nearest stored
+ * neighbour is at least {@code app.knowledge.dedup.similarity} similar is a near duplicate
+ * (near duplicates within one batch are not compared with each other).
+ * Depending on {@code app.knowledge.dedup.mode} duplicates are dropped ({@code skip}), written
+ * without an embedding as links to their original ({@code link}) or kept as is ({@code off}).
+ */
+@Component
+public class ChunkDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkDeduplicator.class);
+
+    private enum Mode {
+        OFF, SKIP, LINK
+    }
+
+    private final AIService aiService;
+    private final KnowledgeChunkWriter knowledgeChunkWriter;
+    private final KnowledgeSearchRepository knowledgeSearchRepository;
+    private final VectorIndex vectorIndex;
+    private final Mode mode;
+    private final float similarity;
+    private final int efSearch;
+
+    public ChunkDeduplicator(
+            AIService aiService,
+            KnowledgeChunkWriter knowledgeChunkWriter,
+            KnowledgeSearchRepository knowledgeSearchRepository,
+            VectorIndex vectorIndex,
+            @Value("${app.knowledge.dedup.mode:link}") String mode,
+            @Value("${app.knowledge.dedup.similarity:0.97}") float similarity,
+            @Value("${app.search.ef-search:40}") int efSearch) {
+        this.aiService = aiService;
+        this.knowledgeChunkWriter = knowledgeChunkWriter;
+        this.knowledgeSearchRepository = knowledgeSearchRepository;
+        this.vectorIndex = vectorIndex;
+        this.mode = parseMode(mode);
+        this.similarity = similarity;
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Embed {@code chunks} and sort out their duplicates. Makes no writes; pass the result to
+     * {@link #write} inside the caller's transaction.
+     */
+    public Batch prepare(List<KnowledgeChunkWriter.Chunk> chunks) {
+        if (chunks.isEmpty()) {
+            return new Batch(List.of(), List.of(), 0, 0);
+        }
+        if (mode == Mode.OFF) {
+            return new Batch(embed(chunks), List.of(), 0, 0);
+        }
+
+        List<String> hashes = new ArrayList<>(chunks.size());
+        for (KnowledgeChunkWriter.Chunk chunk : chunks) {
+            hashes.add(KnowledgeChunkWriter.contentHash(chunk.chunkContent()));
+        }
+        Map<String, Long> stored = knowledgeSearchRepository.findIdsByContentHash(new HashSet<>(hashes));
+
+        List<KnowledgeChunkWriter.Chunk> candidates = new ArrayList<>();
+        List<KnowledgeChunkWriter.Chunk> links = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int exact = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            String hash = hashes.get(i);
+            Long original = stored.get(hash);
+            if (original == null && seen.add(hash)) {
+                candidates.add(chunks.get(i));
+                continue;
+            }
+            exact++;
+            // A null target links to the copy written earlier in this batch, found by hash
+            links.add(chunks.get(i).linkedTo(original));
+        }
+
+        List<KnowledgeChunkWriter.Chunk> rows = new ArrayList<>(candidates.size());
+        int near = 0;
+        for (KnowledgeChunkWriter.Chunk chunk : embed(candidates)) {
+            Long original = nearestDuplicate(chunk.embedding());
+            if (original == null) {
+                rows.add(chunk);
+            } else {
+                near++;
+                links.add(chunk.linkedTo(original));
+            }
+        }
+
+        if (exact + near > 0) {
+            log.debug("Dedup of {} chunks: {} exact and {} near duplicates", chunks.size(), exact, near);
+        }
+        return new Batch(rows, mode == Mode.LINK ? links : List.of(), exact, near);
+    }
+
+    /**
+     * Write a prepared batch: new chunks first, then links to them and to stored originals.
+     */
+    public void write(Batch batch) {
+        knowledgeChunkWriter.writeAll(batch.rows());
+        knowledgeChunkWriter.writeLinks(batch.links());
+    }
+
+    /**
+     * Store chunk {@code id} with its edited text {@code content}, re-running deduplication: when
+     * the normalized text changed, chunks linked to the old text are given a new original (the
+     * oldest of them, re-embedded), and the edited chunk is linked to an original its new text
+     * duplicates (in skip mode too, as an edited row is never dropped) or stored with its new
+     * embedding. Joins the caller's transaction; returns the ids of the rows that changed.
+     */
+    public List<Long> update(Long id, String content) {
+        float[] embedding = aiService.generateEmbeddings(List.of(content)).get(0);
+        String hash = KnowledgeChunkWriter.contentHash(content);
+        List<KnowledgeVO> current = knowledgeSearchRepository.findByIds(List.of(id));
+        if (mode == Mode.OFF || current.isEmpty()
+                || hash.equals(KnowledgeChunkWriter.contentHash(current.get(0).getContent()))) {
+            // Same text up to normalization: its duplicates and its own link are still right
+            knowledgeChunkWriter.update(id, content, embedding, null);
+            return List.of(id);
+        }
+
+        List<Long> changed = new ArrayList<>();
+        changed.add(id);
+        List<KnowledgeVO> linked = knowledgeSearchRepository.findDuplicatesOf(id);
+        if (!linked.isEmpty()) {
+            KnowledgeVO promoted = linked.get(0);
+            float[] promotedEmbedding = aiService.generateEmbeddings(List.of(promoted.getContent())).get(0);
+            knowledgeChunkWriter.promote(promoted.getId(), id, promotedEmbedding);
+            for (KnowledgeVO duplicate : linked) {
+                changed.add(duplicate.getId());
+            }
+        }
+
+        // The chunk still has its old text, so it cannot match its own new hash
+        Long original = knowledgeSearchRepository.findIdsByContentHash(Set.of(hash)).get(hash);
+        if (original == null) {
+            original = nearestDuplicate(embedding, id);
+        }
+        knowledgeChunkWriter.update(id, content, embedding, original);
+        if (original != null) {
+            log.debug("Edited chunk {} now duplicates chunk {}", id, original);
+        }
+        return changed;
+    }
+
+    private List<KnowledgeChunkWriter.Chunk> embed(List<KnowledgeChunkWriter.Chunk> chunks) {
+        List<String> texts = new ArrayList<>(chunks.size());
+        for (KnowledgeChunkWriter.Chunk chunk : chunks) {
+            texts.add(chunk.chunkContent());
+        }
+        List<float[]> embeddings = aiService.generateEmbeddings(texts);
+        List<KnowledgeChunkWriter.Chunk> embedded = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            embedded.add(chunks.get(i).withEmbedding(embeddings.get(i)));
+        }
+        return embedded;
+    }
+
+    private Long nearestDuplicate(float[] embedding) {
+        return nearestDuplicate(embedding, null);
+    }
+
+    /**
+     * Nearest stored chunk at least {@code similarity} similar, other than {@code excludedId}
+     * (an edited chunk is still indexed with its old embedding).
+     */
+    private Long nearestDuplicate(float[] embedding, Long excludedId) {
+        if (embedding == null || similarity >= 1.0f) {
+            return null;
+        }
+        int k = excludedId == null ? 1 : 2;
+        for (KnowledgeVO nearest : vectorIndex.search(embedding, similarity, k, efSearch, KnowledgeFilter.NONE)) {
+            if (!nearest.getId().equals(excludedId)) {
+                return nearest.getId();
+            }
+        }
+        return null;
+    }
+
+    private static Mode parseMode(String value) {
+        if (value == null || value.isBlank()) {
+            return Mode.LINK;
+        }
+        return switch (value.trim().toLowerCase()) {
+            case "off", "none", "false" -> Mode.OFF;
+            case "skip" -> Mode.SKIP;
+            default -> Mode.LINK;
+        };
+    }
+
+    /**
+     * Chunks to insert with their embeddings, duplicates to insert as links (empty in skip mode),
+     * and how many chunks were exact and near duplicates.
+     */
+    public record Batch(
+            List<KnowledgeChunkWriter.Chunk> rows,
+            List<KnowledgeChunkWriter.Chunk> links,
+            int exactDuplicates,
+            int nearDuplicates) {
+
+        public int written() {
+            return rows.size() + links.size();
+        }
+    }
+}
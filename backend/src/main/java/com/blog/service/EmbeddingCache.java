@@ -0,0 +1,103 @@
+package com.blog.service;
+
+import com.blog.util.CacheKeys;
+import com.blog.util.CacheStatsProvider;
+import com.blog.util.RedisCacheTier;
+import com.blog.util.VectorUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of text embeddings keyed by embedding model and normalized text (NFKC, trimmed,
+ * whitespace collapsed). The first tier is a bounded in-process Caffeine cache; when
+ * {@code app.cache.embedding.redis-enabled} is set, misses fall through to Redis before
+ * the embedding model is called.
+ */
+@Component
+public class EmbeddingCache implements CacheStatsProvider {
+
+    private final String model;
+    private final Cache<String, float[]> local;
+    private final RedisCacheTier redis;
+
+    public EmbeddingCache(
+            ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+            @Value("${spring.ai.openai.embedding.options.model:default}") String model,
+            @Value("${app.cache.embedding.max-size:10000}") long maxSize,
+            @Value("${app.cache.embedding.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.cache.embedding.redis-enabled:false}") boolean redisEnabled,
+            @Value("${app.cache.embedding.redis-ttl-hours:24}") long redisTtlHours) {
+        this.model = model;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfterAccess(Duration.ofMinutes(Math.max(1, ttlMinutes)))
+                .recordStats()
+                .build();
+        RedisConnectionFactory factory = redisEnabled ? redisConnectionFactory.getIfAvailable() : null;
+        this.redis = factory == null ? null
+                : new RedisCacheTier(factory, "embedding:", Duration.ofHours(Math.max(1, redisTtlHours)));
+    }
+
+    /**
+     * Cached embedding for {@code text}, computing it with {@code embedder} on a miss.
+     * Results the embedder marks as not cacheable (null or empty) are passed through but not stored.
+     */
+    public float[] get(String text, Function<String, float[]> embedder) {
+        String normalized = CacheKeys.normalize(text);
+        String key = model + '\u0000' + normalized;
+        float[] cached = local.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        String redisKey = redis == null ? null : model + ":" + CacheKeys.sha256(normalized);
+        if (redis != null) {
+            byte[] bytes = redis.get(redisKey);
+            if (bytes != null && bytes.length > 0) {
+                float[] embedding = VectorUtil.fromBytes(bytes);
+                local.put(key, embedding);
+                return embedding;
+            }
+        }
+
+        float[] embedding = embedder.apply(text);
+        if (embedding != null && embedding.length > 0) {
+            local.put(key, embedding);
+            if (redis != null) {
+                redis.put(redisKey, VectorUtil.toBytes(embedding));
+            }
+        }
+        return embedding;
+    }
+
+    @Override
+    public String cacheName() {
+        return "embedding";
+    }
+
+    @Override
+    public Map<String, Object> cacheStats() {
+        CacheStats stats = local.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("model", model);
+        result.put("size", local.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        if (redis != null) {
+            result.put("redis", redis.stats());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,440 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.KnowledgeEmbeddingRepository;
+import com.blog.repository.KnowledgeEmbeddingRepository.EmbeddingRow;
+import com.blog.repository.KnowledgeSearchRepository;
+import com.blog.util.HnswGraph;
+import com.blog.util.MappedSnapshot;
+import com.blog.util.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-process HNSW index over knowledge_base embeddings.
+ * <p>
+ * At startup the graph is loaded from its snapshot file and reconciled with the table, or built from
+ * scratch when there is no usable snapshot; searches go to the pgvector fallback until then.
+ * Afterwards it follows the table from a single background thread: chunks named by a
+ * {@link KnowledgeChangedEvent} are reloaded right after commit, and every sync interval rows whose
+ * updated_at moved past the last sync (minus a lag that covers transactions still open at the time)
+ * are picked up, which also catches imports and writes from other instances. A deleted row leaves no
+ * updated_at behind, so every delete check interval the graph's ids are also diffed against the
+ * table to drop chunks another instance deleted. The snapshot is rewritten after the initial load
+ * and on shutdown.
+ * <p>
+ * The graph holds vectors and filter attributes only; titles and content of the hits are read back
+ * from knowledge_base by primary key.
+ */
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorIndex.class);
+
+    private static final int MAGIC = 0x4b425649;
+    private static final int VERSION = 1;
+    private static final int SOURCE_TYPE = 0;
+    private static final int PARENT_ID = 1;
+    private static final int CREATED_AT = 2;
+    private static final int UPDATED_AT = 3;
+    private static final int ATTRIBUTE_COUNT = 4;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int FETCH_BATCH = 500;
+    private static final double MAX_DELETED_RATIO = 0.3;
+
+    private final KnowledgeEmbeddingRepository embeddingRepository;
+    private final KnowledgeSearchRepository knowledgeSearchRepository;
+    private final VectorIndex fallback;
+    private final int dimension;
+    private final int m;
+    private final int efConstruction;
+    private final Path snapshotPath;
+    private final long syncIntervalMillis;
+    private final long syncLagMillis;
+    private final long deleteCheckIntervalMillis;
+    private final ScheduledExecutorService executor;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> sourceTypeCodes = new ConcurrentHashMap<>();
+    private final List<String> sourceTypes = new CopyOnWriteArrayList<>();
+
+    private volatile HnswGraph graph;
+    private volatile boolean ready;
+    private Timestamp watermark;
+    private long lastDeleteCheck;
+
+    public HnswVectorIndex(
+            KnowledgeEmbeddingRepository embeddingRepository,
+            KnowledgeSearchRepository knowledgeSearchRepository,
+            VectorIndex fallback,
+            int dimension,
+            int m,
+            int efConstruction,
+            Path snapshotPath,
+            long syncIntervalMillis,
+            long syncLagMillis,
+            long deleteCheckIntervalMillis) {
+        this.embeddingRepository = embeddingRepository;
+        this.knowledgeSearchRepository = knowledgeSearchRepository;
+        this.fallback = fallback;
+        this.dimension = dimension;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.snapshotPath = snapshotPath;
+        this.syncIntervalMillis = Math.max(1000, syncIntervalMillis);
+        this.syncLagMillis = Math.max(0, syncLagMillis);
+        this.deleteCheckIntervalMillis = Math.max(0, deleteCheckIntervalMillis);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("vector-hnsw"));
+    }
+
+    @Override
+    public List<KnowledgeVO> search(float[] embedding, float threshold, int limit, int efSearch,
+                                    KnowledgeFilter filter) {
+        HnswGraph current = graph;
+        if (!ready || current == null || embedding == null || embedding.length != dimension) {
+            return fallback.search(embedding, threshold, limit, efSearch, filter);
+        }
+
+        List<HnswGraph.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = current.search(embedding, limit, Math.max(efSearch, limit), nodeFilter(current, filter));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, Double> similarities = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (HnswGraph.Hit hit : hits) {
+            if (hit.similarity() > threshold) {
+                similarities.put(hit.label(), hit.similarity());
+                ids.add(hit.label());
+            }
+        }
+        Map<Long, KnowledgeVO> rows = new HashMap<>();
+        for (KnowledgeVO vo : knowledgeSearchRepository.findByIds(ids)) {
+            rows.put(vo.getId(), vo);
+        }
+        List<KnowledgeVO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            KnowledgeVO vo = rows.get(id);
+            if (vo != null) {
+                vo.setSimilarity(similarities.get(id));
+                results.add(vo);
+            }
+        }
+        return results;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> {
+            try {
+                initialize();
+                executor.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                log.error("HNSW vector index failed to initialize, pgvector keeps serving searches", e);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        List<Long> ids = new ArrayList<>(event.chunkIds());
+        executor.execute(() -> {
+            if (ready) {
+                try {
+                    refresh(ids);
+                } catch (RuntimeException e) {
+                    log.warn("HNSW refresh of {} chunks failed, next sync retries: {}", ids.size(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("HNSW index thread did not stop, skipping snapshot");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (ready) {
+            writeSnapshot();
+        }
+    }
+
+    private void initialize() {
+        long start = System.currentTimeMillis();
+        Timestamp now = embeddingRepository.currentTimestamp();
+        HnswGraph loaded = readSnapshot();
+        if (loaded != null) {
+            publish(loaded);
+            reconcile();
+            log.info("HNSW vector index loaded from {} with {} vectors in {} ms",
+                    snapshotPath, loaded.liveCount(), System.currentTimeMillis() - start);
+        } else {
+            HnswGraph built = new HnswGraph(dimension, m, efConstruction, ATTRIBUTE_COUNT);
+            embeddingRepository.forEach(row -> {
+                if (row.embedding() != null && row.embedding().length == dimension) {
+                    built.add(row.id(), row.embedding(), attributes(row));
+                }
+            });
+            watermark = now;
+            lastDeleteCheck = System.currentTimeMillis();
+            publish(built);
+            log.info("HNSW vector index built with {} vectors in {} ms",
+                    built.liveCount(), System.currentTimeMillis() - start);
+        }
+        ready = true;
+        writeSnapshot();
+    }
+
+    private void publish(HnswGraph next) {
+        lock.writeLock().lock();
+        try {
+            graph = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * After loading a snapshot: drop vectors whose rows are gone, add rows the snapshot lacks,
+     * and reload rows updated since it was written.
+     */
+    private void reconcile() {
+        Set<Long> tableIds = new HashSet<>(embeddingRepository.findAllIds());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : tableIds) {
+            if (!graph.contains(id)) {
+                missing.add(id);
+            }
+        }
+        removeDeleted(tableIds);
+        refresh(missing);
+        sync();
+    }
+
+    /**
+     * Drop vectors whose rows are no longer in {@code tableIds}.
+     */
+    private int removeDeleted(Set<Long> tableIds) {
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            for (long label : graph.labels()) {
+                if (!tableIds.contains(label) && graph.remove(label)) {
+                    removed++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastDeleteCheck = System.currentTimeMillis();
+        return removed;
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("HNSW vector index sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void sync() {
+        Timestamp now = embeddingRepository.currentTimestamp();
+        Timestamp since = new Timestamp(watermark.getTime() - syncLagMillis);
+        List<Long> changed = new ArrayList<>();
+        for (Map.Entry<Long, Timestamp> entry : embeddingRepository.findUpdatedSince(since).entrySet()) {
+            if (graph.attribute(entry.getKey(), UPDATED_AT, NONE) != entry.getValue().getTime()) {
+                changed.add(entry.getKey());
+            }
+        }
+        refresh(changed);
+        watermark = now;
+        if (System.currentTimeMillis() - lastDeleteCheck >= deleteCheckIntervalMillis) {
+            int removed = removeDeleted(new HashSet<>(embeddingRepository.findAllIds()));
+            if (removed > 0) {
+                log.info("HNSW vector index dropped {} chunks deleted elsewhere", removed);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Re-read the given chunks; rows that no longer exist (or lost their embedding) are removed.
+     */
+    private void refresh(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += FETCH_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + FETCH_BATCH));
+            Set<Long> found = new HashSet<>();
+            List<EmbeddingRow> rows = embeddingRepository.findByIds(batch);
+            for (EmbeddingRow row : rows) {
+                if (row.embedding() == null || row.embedding().length != dimension) {
+                    continue;
+                }
+                found.add(row.id());
+                long[] rowAttributes = attributes(row);
+                lock.writeLock().lock();
+                try {
+                    graph.add(row.id(), row.embedding(), rowAttributes);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                for (Long id : batch) {
+                    if (!found.contains(id)) {
+                        graph.remove(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Replaced and removed chunks stay in the graph as tombstones; rebuild once they dominate.
+     */
+    private void compactIfNeeded() {
+        HnswGraph current = graph;
+        int total = current.liveCount() + current.deletedCount();
+        if (total == 0 || current.deletedCount() < total * MAX_DELETED_RATIO) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        HnswGraph compacted;
+        lock.readLock().lock();
+        try {
+            compacted = current.compact();
+        } finally {
+            lock.readLock().unlock();
+        }
+        publish(compacted);
+        log.info("HNSW vector index compacted to {} vectors in {} ms",
+                compacted.liveCount(), System.currentTimeMillis() - start);
+        writeSnapshot();
+    }
+
+    private IntPredicate nodeFilter(HnswGraph current, KnowledgeFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+        long sourceType;
+        if (filter.sourceType() != null && !filter.sourceType().isBlank()) {
+            Integer code = sourceTypeCodes.get(filter.sourceType().trim());
+            // A source type never seen cannot match anything
+            sourceType = code == null ? -2 : code;
+        } else {
+            sourceType = NONE;
+        }
+        long parentId = filter.parentId() == null ? NONE : filter.parentId();
+        long createdFrom = filter.createdFrom() == null ? NONE : Timestamp.valueOf(filter.createdFrom()).getTime();
+        long createdTo = filter.createdTo() == null ? NONE : Timestamp.valueOf(filter.createdTo()).getTime();
+        return node -> (sourceType == NONE || current.attributeOfNode(node, SOURCE_TYPE) == sourceType)
+                && (parentId == NONE || current.attributeOfNode(node, PARENT_ID) == parentId)
+                && (createdFrom == NONE || current.attributeOfNode(node, CREATED_AT) >= createdFrom)
+                && (createdTo == NONE || current.attributeOfNode(node, CREATED_AT) < createdTo);
+    }
+
+    private long[] attributes(EmbeddingRow row) {
+        long[] values = new long[ATTRIBUTE_COUNT];
+        values[SOURCE_TYPE] = row.sourceType() == null ? -1 : sourceTypeCode(row.sourceType());
+        values[PARENT_ID] = row.parentId() == null ? NONE : row.parentId();
+        values[CREATED_AT] = row.createdAt() == null ? NONE : row.createdAt().getTime();
+        values[UPDATED_AT] = row.updatedAt() == null ? NONE : row.updatedAt().getTime();
+        return values;
+    }
+
+    private int sourceTypeCode(String sourceType) {
+        return sourceTypeCodes.computeIfAbsent(sourceType, key -> {
+            sourceTypes.add(key);
+            return sourceTypes.size() - 1;
+        });
+    }
+
+    private HnswGraph readSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (MappedSnapshot.Reader in = MappedSnapshot.open(snapshotPath)) {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                log.warn("Ignoring HNSW snapshot {} with an unknown format", snapshotPath);
+                return null;
+            }
+            Timestamp snapshotWatermark = new Timestamp(in.getLong());
+            int count = in.getInt();
+            List<String> types = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                types.add(in.getString());
+            }
+            HnswGraph loaded = HnswGraph.readFrom(in);
+            if (loaded.dimension() != dimension) {
+                log.warn("Ignoring HNSW snapshot {} of dimension {}", snapshotPath, loaded.dimension());
+                return null;
+            }
+            for (String type : types) {
+                sourceTypeCode(type);
+            }
+            watermark = snapshotWatermark;
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read HNSW snapshot {}, rebuilding: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot() {
+        long start = System.currentTimeMillis();
+        lock.readLock().lock();
+        try (MappedSnapshot.Writer out = MappedSnapshot.create(snapshotPath)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(watermark.getTime());
+            List<String> types = List.copyOf(sourceTypes);
+            out.putInt(types.size());
+            for (String type : types) {
+                out.putString(type);
+            }
+            graph.writeTo(out);
+            out.commit();
+            log.info("HNSW snapshot written to {} in {} ms", snapshotPath, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Could not write HNSW snapshot {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -2,48 +2,136 @@ package com.blog.service;
 
 import com.blog.model.dto.ImportResult;
 import com.blog.model.entity.ImportRecord;
-import com.blog.model.entity.KnowledgeBase;
+import com.blog.model.entity.KnowledgeDocument;
 import com.blog.parser.MarkdownParser;
 import com.blog.parser.PDFParser;
 import com.blog.parser.WordParser;
 import com.blog.repository.ImportRecordRepository;
-import com.blog.repository.KnowledgeRepository;
-import com.blog.util.TextChunker;
+import com.blog.repository.KnowledgeChunkWriter;
+import com.blog.repository.KnowledgeDocumentBodyWriter;
+import com.blog.repository.KnowledgeDocumentRepository;
+import com.blog.util.NamedThreadFactory;
+import com.blog.util.ChunkingStrategy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Document import. Uploads are spooled to a temp file and queued on a bounded worker pool;
+ * workers parse, chunk and embed the file and commit chunks batch by batch, updating the
+ * ImportRecord progress after every batch so clients can poll /api/import/records/{id}.
+ * PDFs are streamed page range by page range and never held in memory as a whole.
+ * The document body is stored once in knowledge_documents; chunk rows only reference it. While the
+ * file is parsed the body is spooled to a temp file and streamed into the document row in bounded pieces at the end.
+ * Each batch goes through ChunkDeduplicator, and the record counts the duplicates it found.
+ * A failed import deletes the chunks and document it already committed, and so does an import
+ * orphaned by an instance that stopped (see {@link #startHeartbeat()}).
+ */
 @Service
 public class ImportService {
 
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+    private static final List<String> UNFINISHED_STATUSES = List.of("queued", "processing");
+
     private final WordParser wordParser;
     private final PDFParser pdfParser;
     private final MarkdownParser markdownParser;
-    private final AIService aiService;
-    private final KnowledgeRepository knowledgeRepository;
+    private final ChunkDeduplicator chunkDeduplicator;
+    private final KnowledgeChunkWriter knowledgeChunkWriter;
+    private final KnowledgeDocumentRepository knowledgeDocumentRepository;
+    private final KnowledgeDocumentBodyWriter knowledgeDocumentBodyWriter;
+    private final ChunkingStrategy chunkingStrategy;
     private final ImportRecordRepository importRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService importExecutor;
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final String workerId = UUID.randomUUID().toString();
+    private final long heartbeatIntervalMillis;
+    private final long staleAfterMillis;
+    private final int batchSize;
+    private final int pdfPagesPerRange;
 
     public ImportService(
             WordParser wordParser,
             PDFParser pdfParser,
             MarkdownParser markdownParser,
-            AIService aiService,
-            KnowledgeRepository knowledgeRepository,
-            ImportRecordRepository importRecordRepository) {
+            ChunkDeduplicator chunkDeduplicator,
+            KnowledgeChunkWriter knowledgeChunkWriter,
+            KnowledgeDocumentRepository knowledgeDocumentRepository,
+            KnowledgeDocumentBodyWriter knowledgeDocumentBodyWriter,
+            ChunkingStrategy chunkingStrategy,
+            ImportRecordRepository importRecordRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.import.workers:2}") int workers,
+            @Value("${app.import.queue-capacity:20}") int queueCapacity,
+            @Value("${app.import.batch-size:64}") int batchSize,
+            @Value("${app.import.pdf-pages-per-range:10}") int pdfPagesPerRange,
+            @Value("${app.import.heartbeat-interval-ms:30000}") long heartbeatIntervalMillis,
+            @Value("${app.import.stale-after-ms:120000}") long staleAfterMillis) {
         this.wordParser = wordParser;
         this.pdfParser = pdfParser;
         this.markdownParser = markdownParser;
-        this.aiService = aiService;
-        this.knowledgeRepository = knowledgeRepository;
+        this.chunkDeduplicator = chunkDeduplicator;
+        this.knowledgeChunkWriter = knowledgeChunkWriter;
+        this.knowledgeDocumentRepository = knowledgeDocumentRepository;
+        this.knowledgeDocumentBodyWriter = knowledgeDocumentBodyWriter;
+        this.chunkingStrategy = chunkingStrategy;
         this.importRecordRepository = importRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = Math.max(1, batchSize);
+        this.pdfPagesPerRange = Math.max(1, pdfPagesPerRange);
+        this.heartbeatIntervalMillis = Math.max(1000, heartbeatIntervalMillis);
+        this.staleAfterMillis = Math.max(2 * this.heartbeatIntervalMillis, staleAfterMillis);
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("import-heartbeat"));
+        this.importExecutor = new ThreadPoolExecutor(
+                Math.max(1, workers),
+                Math.max(1, workers),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new NamedThreadFactory("import"),
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
-    @Transactional
-    public ImportResult importDocument(MultipartFile file) {
+    /**
+     * Accept an upload and queue it for background import. Returns as soon as the file is
+     * spooled to disk; the returned record id can be polled for progress.
+     */
+    public ImportResult submitImport(MultipartFile file) {
         String filename = file.getOriginalFilename();
         if (filename == null || filename.isBlank()) {
             return ImportResult.failure("filename is missing");
@@ -56,68 +144,198 @@ public class ImportService {
             return ImportResult.failure(ex.getMessage());
         }
 
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("import-", "-" + fileType);
+            file.transferTo(spooled);
+        } catch (IOException ex) {
+            log.error("Failed to spool upload {}", filename, ex);
+            return ImportResult.failure("failed to store upload: " + ex.getMessage());
+        }
+
         ImportRecord record = new ImportRecord();
         record.setFilename(filename);
         record.setFileType(fileType);
         record.setFileSize(file.getSize());
-        record.setStatus("processing");
+        record.setStatus("queued");
+        record.setChunksProcessed(0);
+        record.setDuplicateChunks(0);
+        record.setNearDuplicateChunks(0);
+        record.setProgress(0);
+        record.setWorkerId(workerId);
+        record.setHeartbeatAt(LocalDateTime.now());
         record = importRecordRepository.save(record);
 
+        Long recordId = record.getId();
         try {
-            String content = parseDocument(file, fileType);
-            List<String> chunks = TextChunker.split(content, 500);
-
-            for (int i = 0; i < chunks.size(); i++) {
-                String chunk = chunks.get(i);
-                float[] embedding = aiService.generateEmbedding(chunk);
-
-                // Convert float[] to PostgreSQL vector text format
-                String embeddingStr = convertToVectorString(embedding);
-
-                // Use native insert to properly cast the embedding to vector type
-                knowledgeRepository.insertWithVector(
-                        filename, // title
-                        content, // content
-                        chunk, // chunkContent
-                        i, // chunkIndex
-                        record.getId(), // parentId
-                        embeddingStr, // embedding (will be cast to vector)
-                        null, // metadata
-                        fileType, // sourceType
-                        null // sourceUrl
-                );
+            importExecutor.execute(() -> runImport(recordId, spooled));
+        } catch (RejectedExecutionException ex) {
+            deleteQuietly(spooled);
+            markFailed(record, "import queue is full, please retry later");
+            return ImportResult.failure("import queue is full, please retry later");
+        }
+        return ImportResult.accepted(recordId, filename);
+    }
+
+    public List<ImportRecord> listRecords() {
+        return importRecordRepository.findAll();
+    }
+
+    public ImportRecord getRecord(Long id) {
+        return importRecordRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Jobs do not survive a restart. Every instance renews the heartbeat of the imports it owns;
+     * an unfinished import whose heartbeat is older than app.import.stale-after-ms belonged to an
+     * instance that stopped, so it is failed and its committed chunks and document are discarded.
+     * Checked at startup and then periodically, since the imports of an instance that restarted
+     * quickly are not stale yet. Imports still running on another live replica are left alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHeartbeat() {
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeatQuietly, 0, heartbeatIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdownImportExecutor() {
+        heartbeatExecutor.shutdownNow();
+        importExecutor.shutdownNow();
+    }
+
+    private void heartbeatQuietly() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(
+                    status -> importRecordRepository.touchOwned(workerId, UNFINISHED_STATUSES, now));
+            failOrphanedImports(now.minus(staleAfterMillis, ChronoUnit.MILLIS));
+        } catch (RuntimeException ex) {
+            log.warn("Import heartbeat failed, next run retries: {}", ex.getMessage());
+        }
+    }
+
+    private void failOrphanedImports(LocalDateTime staleBefore) {
+        for (Long recordId : importRecordRepository.findStaleIds(UNFINISHED_STATUSES, staleBefore)) {
+            // Only the instance whose update wins cleans up
+            Integer claimed = transactionTemplate.execute(status -> importRecordRepository.claimStale(
+                    recordId, UNFINISHED_STATUSES, staleBefore, "import interrupted by server restart",
+                    LocalDateTime.now()));
+            ImportRecord record = claimed == null || claimed == 0
+                    ? null
+                    : importRecordRepository.findById(recordId).orElse(null);
+            if (record == null) {
+                continue;
+            }
+            log.warn("Import record {} was orphaned by a stopped instance, discarding it", recordId);
+            for (Long documentId : knowledgeDocumentRepository.findIdsByParentId(recordId)) {
+                discardPartialImport(record, documentId);
             }
+            importRecordRepository.save(record);
+        }
+    }
+
+    private void runImport(Long recordId, Path spooled) {
+        ImportRecord record = importRecordRepository.findById(recordId).orElse(null);
+        if (record == null) {
+            deleteQuietly(spooled);
+            return;
+        }
+
+        ChunkSink sink = null;
+        Long documentId = null;
+        try {
+            record.setStatus("processing");
+            record.setHeartbeatAt(LocalDateTime.now());
+            record = importRecordRepository.save(record);
+            KnowledgeDocument document = new KnowledgeDocument();
+            document.setParentId(record.getId());
+            document.setTitle(record.getFilename());
+            document.setSourceType(record.getFileType());
+            documentId = knowledgeDocumentRepository.save(document).getId();
+            sink = new ChunkSink(record, documentId);
 
-            record.setChunksCount(chunks.size());
+            if ("pdf".equals(record.getFileType())) {
+                ChunkSink pdfSink = sink;
+                pdfParser.parsePages(spooled, pdfPagesPerRange, (text, lastPage, pageCount) -> {
+                    pdfSink.appendDocument(text);
+                    pdfSink.addSection(text, lastPage == pageCount);
+                    pdfSink.setSectionProgress(lastPage * 100 / pageCount);
+                });
+            } else {
+                String content = parseDocument(spooled, record.getFileType());
+                sink.appendDocument(content);
+                Iterator<ChunkingStrategy.Chunk> chunks = chunkingStrategy.chunks(content);
+                while (chunks.hasNext()) {
+                    ChunkingStrategy.Chunk chunk = chunks.next();
+                    sink.setSectionProgress(chunk.end() * 100 / content.length());
+                    sink.add(chunk.text());
+                }
+            }
+
+            record = sink.finish();
+            record.setChunksCount(record.getChunksProcessed());
             record.setStatus("completed");
+            record.setProgress(100);
             record.setCompletedAt(LocalDateTime.now());
+            record.setHeartbeatAt(LocalDateTime.now());
             importRecordRepository.save(record);
-
-            return ImportResult.success(record.getId(), filename, chunks.size());
         } catch (Exception e) {
-            record.setStatus("failed");
-            record.setErrorMessage(e.getMessage());
-            record.setCompletedAt(LocalDateTime.now());
-            importRecordRepository.save(record);
-            return ImportResult.failure(e.getMessage());
+            log.error("Import of record {} failed.", recordId, e);
+            ImportRecord failed = sink != null ? sink.record : record;
+            if (documentId != null) {
+                discardPartialImport(failed, documentId);
+            }
+            markFailed(failed, e.getMessage());
+        } finally {
+            if (sink != null) {
+                sink.close();
+            }
+            deleteQuietly(spooled);
         }
     }
 
-    public List<ImportRecord> listRecords() {
-        return importRecordRepository.findAll();
+    /**
+     * Remove the chunks committed so far and the document row, so a failed import does not stay
+     * searchable as a truncated document that a retry would then duplicate.
+     */
+    private void discardPartialImport(ImportRecord record, Long documentId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> chunkIds = knowledgeChunkWriter.deleteByDocumentId(documentId);
+                knowledgeDocumentRepository.deleteById(documentId);
+                // Listeners (answer cache, in-process vector index) drop the chunks after commit
+                eventPublisher.publishEvent(new KnowledgeChangedEvent(chunkIds));
+            });
+            record.setChunksProcessed(0);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to discard partial import of record {}: {}", record.getId(), ex.getMessage());
+        }
     }
 
-    public ImportRecord getRecord(Long id) {
-        return importRecordRepository.findById(id).orElse(null);
+    private void markFailed(ImportRecord record, String message) {
+        record.setStatus("failed");
+        record.setErrorMessage(message);
+        record.setCompletedAt(LocalDateTime.now());
+        importRecordRepository.save(record);
     }
 
-    private String parseDocument(MultipartFile file, String fileType) throws IOException {
-        return switch (fileType) {
-            case "word" -> wordParser.parse(file.getInputStream());
-            case "pdf" -> pdfParser.parse(file.getInputStream());
-            case "markdown" -> markdownParser.parse(file.getInputStream());
-            default -> throw new IllegalArgumentException("Unsupported file type");
-        };
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete spooled upload {}: {}", path, ex.getMessage());
+        }
+    }
+
+    private String parseDocument(Path file, String fileType) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return switch (fileType) {
+                case "word" -> wordParser.parse(inputStream);
+                case "markdown" -> markdownParser.parse(inputStream);
+                default -> throw new IllegalArgumentException("Unsupported file type");
+            };
+        }
     }
 
     private String getFileType(String filename) {
@@ -135,20 +353,132 @@ public class ImportService {
     }
 
     /**
-     * Convert float[] embedding to PostgreSQL vector text format "[0.1,0.2,...]"
+     * Collects chunks of one import and, every {@code batchSize} chunks, deduplicates and embeds
+     * them and commits them together with the record's progress and dedup counts.
      */
-    private String convertToVectorString(float[] embedding) {
-        if (embedding == null || embedding.length == 0) {
-            return null;
-        }
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) {
-                sb.append(',');
+    private final class ChunkSink implements Closeable {
+
+        private final List<KnowledgeChunkWriter.Chunk> pending = new ArrayList<>();
+        private final Long documentId;
+        private final Path body;
+        private final Writer bodyWriter;
+        private ImportRecord record;
+        private int processed;
+        private int written;
+        private int duplicates;
+        private int nearDuplicates;
+        private int sectionProgress;
+        private String carry = "";
+
+        private ChunkSink(ImportRecord record, Long documentId) throws IOException {
+            this.record = record;
+            this.documentId = documentId;
+            this.body = Files.createTempFile("import-body-", ".txt");
+            this.bodyWriter = Files.newBufferedWriter(body, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Spool a section of the document body; appending to the row instead would rewrite the
+         * whole (TOASTed) value on every section.
+         */
+        void appendDocument(String text) throws IOException {
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            bodyWriter.write(text);
+        }
+
+        void setSectionProgress(int sectionProgress) {
+            this.sectionProgress = sectionProgress;
+        }
+
+        /**
+         * Chunk one section of a streamed document. The last chunk of a section may be cut
+         * short by the section edge, so it is carried over and re-chunked with the next section.
+         */
+        void addSection(String text, boolean lastSection) {
+            String section = carry + (text == null ? "" : text);
+            Iterator<ChunkingStrategy.Chunk> chunks = chunkingStrategy.chunks(section);
+            ChunkingStrategy.Chunk held = null;
+            while (chunks.hasNext()) {
+                if (held != null) {
+                    add(held.text());
+                }
+                held = chunks.next();
+            }
+            if (held == null) {
+                carry = "";
+            } else if (lastSection) {
+                add(held.text());
+                carry = "";
+            } else {
+                carry = section.substring(held.start());
+            }
+        }
+
+        void add(String chunk) {
+            pending.add(new KnowledgeChunkWriter.Chunk(
+                    record.getFilename(), // title
+                    chunk, // chunkContent
+                    processed + pending.size(), // chunkIndex
+                    record.getId(), // parentId
+                    documentId, // documentId
+                    null, // embedding, filled in on flush
+                    null, // metadata
+                    record.getFileType(), // sourceType
+                    null, // sourceUrl
+                    null // duplicateOf
+            ));
+            if (pending.size() >= batchSize) {
+                flush();
             }
-            sb.append(embedding[i]);
         }
-        sb.append(']');
-        return sb.toString();
+
+        ImportRecord finish() throws IOException {
+            flush();
+            bodyWriter.close();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Reader reader = Files.newBufferedReader(body, StandardCharsets.UTF_8)) {
+                    knowledgeDocumentBodyWriter.write(documentId, reader);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            return record;
+        }
+
+        @Override
+        public void close() {
+            try {
+                bodyWriter.close();
+            } catch (IOException ex) {
+                log.debug("Failed to close spooled document body {}: {}", body, ex.getMessage());
+            }
+            deleteQuietly(body);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ChunkDeduplicator.Batch batch = chunkDeduplicator.prepare(List.copyOf(pending));
+            processed += pending.size();
+            pending.clear();
+            written += batch.written();
+            duplicates += batch.exactDuplicates();
+            nearDuplicates += batch.nearDuplicates();
+
+            ImportRecord current = record;
+            current.setChunksProcessed(written);
+            current.setDuplicateChunks(duplicates);
+            current.setNearDuplicateChunks(nearDuplicates);
+            current.setProgress(sectionProgress);
+            // Saving the whole entity would otherwise put back an older heartbeat
+            current.setHeartbeatAt(LocalDateTime.now());
+            record = transactionTemplate.execute(status -> {
+                chunkDeduplicator.write(batch);
+                return importRecordRepository.save(current);
+            });
+        }
     }
-}
\ No newline at end of file
+}
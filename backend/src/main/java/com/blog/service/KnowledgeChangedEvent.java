@@ -0,0 +1,9 @@
+package com.blog.service;
+
+import java.util.Collection;
+
+/**
+ * Published when existing knowledge_base chunks are modified or deleted, so caches derived from them can be dropped.
+ */
+public record KnowledgeChangedEvent(Collection<Long> chunkIds) {
+}
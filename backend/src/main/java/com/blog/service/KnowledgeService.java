@@ -1,71 +1,107 @@
 package com.blog.service;
 
 import com.blog.model.entity.KnowledgeBase;
+import com.blog.model.entity.KnowledgeDocument;
+import com.blog.repository.KnowledgeChunkWriter;
+import com.blog.repository.KnowledgeDocumentRepository;
 import com.blog.repository.KnowledgeRepository;
-import com.blog.util.TextChunker;
-import com.blog.util.VectorUtil;
+import com.blog.repository.KnowledgeSummaryRepository;
+import com.blog.util.ChunkingStrategy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class KnowledgeService {
 
     private final KnowledgeRepository knowledgeRepository;
-    private final AIService aiService;
+    private final KnowledgeDocumentRepository knowledgeDocumentRepository;
+    private final KnowledgeSummaryRepository knowledgeSummaryRepository;
+    private final ChunkingStrategy chunkingStrategy;
+    private final ChunkDeduplicator chunkDeduplicator;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public KnowledgeService(KnowledgeRepository knowledgeRepository, AIService aiService) {
+    public KnowledgeService(
+            KnowledgeRepository knowledgeRepository,
+            KnowledgeDocumentRepository knowledgeDocumentRepository,
+            KnowledgeSummaryRepository knowledgeSummaryRepository,
+            ChunkingStrategy chunkingStrategy,
+            ChunkDeduplicator chunkDeduplicator,
+            ApplicationEventPublisher eventPublisher) {
         this.knowledgeRepository = knowledgeRepository;
-        this.aiService = aiService;
+        this.knowledgeDocumentRepository = knowledgeDocumentRepository;
+        this.knowledgeSummaryRepository = knowledgeSummaryRepository;
+        this.chunkingStrategy = chunkingStrategy;
+        this.chunkDeduplicator = chunkDeduplicator;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<KnowledgeBase> listAll() {
-        return knowledgeRepository.findAll();
+    /**
+     * One page of chunk summaries after {@code afterId}; see KnowledgeSummaryRepository.
+     */
+    public List<Map<String, Object>> listSummaries(Long afterId, int size, Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            fields = KnowledgeSummaryRepository.DEFAULT_FIELDS;
+        }
+        return knowledgeSummaryRepository.findPage(afterId, size, fields);
     }
 
     public Optional<KnowledgeBase> getById(Long id) {
         return knowledgeRepository.findById(id);
     }
 
+    public Optional<KnowledgeDocument> getDocument(Long documentId) {
+        return knowledgeDocumentRepository.findById(documentId);
+    }
+
     @Transactional
     public void createFromExternal(String title, String content, String sourceUrl) {
+        // Store the full body once; chunk rows only reference it
+        KnowledgeDocument document = new KnowledgeDocument();
+        document.setTitle(title);
+        document.setContent(content);
+        document.setSourceType("external");
+        document.setSourceUrl(sourceUrl);
+        document = knowledgeDocumentRepository.save(document);
+
         // Split content into chunks for better vector search
-        List<String> chunks = TextChunker.split(content, 500);
+        List<String> chunks = chunkingStrategy.split(content);
 
         // If content is very short, use the whole content as a single chunk
         if (chunks.isEmpty()) {
             chunks = List.of(content);
         }
 
-        // Create an embedding for each chunk
+        List<KnowledgeChunkWriter.Chunk> rows = new ArrayList<>(chunks.size());
         for (int i = 0; i < chunks.size(); i++) {
-            String chunk = chunks.get(i);
-            float[] embedding = aiService.generateEmbedding(chunk);
-            String embeddingText = VectorUtil.toVectorString(embedding);
-
-            // Insert using native query to handle vector type
-            knowledgeRepository.insertWithVector(
+            rows.add(new KnowledgeChunkWriter.Chunk(
                     title,
-                    content, // full content
-                    chunk, // chunk content for vector search
+                    chunks.get(i), // chunk content for vector search
                     i, // chunkIndex
                     null, // parentId
-                    embeddingText,
+                    document.getId(), // documentId
+                    null, // embedding, filled in by the deduplicator
                     null, // metadata
                     "external", // sourceType
-                    sourceUrl);
+                    sourceUrl,
+                    null)); // duplicateOf
         }
+        // Embed the chunks, leaving out (or linking) ones already in the knowledge base
+        chunkDeduplicator.write(chunkDeduplicator.prepare(rows));
     }
 
     @Transactional
     public void updateContent(Long id, String newContent) {
-        // Generate new embedding for the updated content
-        float[] embedding = aiService.generateEmbedding(newContent);
-        String embeddingText = VectorUtil.toVectorString(embedding);
-
-        // Update using native query to handle vector type
-        knowledgeRepository.updateWithVector(id, newContent, newContent, embeddingText);
+        // Re-embed the new text (unchanged text is served from the embedding store) and re-run
+        // deduplication, which may re-point chunks that were linked to this one
+        List<Long> changed = chunkDeduplicator.update(id, newContent);
+        // Cached answers built on these chunks are dropped once the update commits
+        eventPublisher.publishEvent(new KnowledgeChangedEvent(changed));
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.KnowledgeSearchRepository;
+
+import java.util.List;
+
+/**
+ * Vector search in PostgreSQL through pgvector's HNSW index.
+ */
+public class PgvectorVectorIndex implements VectorIndex {
+
+    private final KnowledgeSearchRepository knowledgeSearchRepository;
+
+    public PgvectorVectorIndex(KnowledgeSearchRepository knowledgeSearchRepository) {
+        this.knowledgeSearchRepository = knowledgeSearchRepository;
+    }
+
+    @Override
+    public List<KnowledgeVO> search(float[] embedding, float threshold, int limit, int efSearch,
+                                    KnowledgeFilter filter) {
+        return knowledgeSearchRepository.searchSimilar(embedding, threshold, limit, efSearch, filter);
+    }
+}
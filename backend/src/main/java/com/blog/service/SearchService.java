@@ -1,55 +1,76 @@
 package com.blog.service;
 
-import com.blog.model.entity.KnowledgeBase;
+import com.blog.model.dto.KnowledgeFilter;
 import com.blog.model.vo.KnowledgeVO;
-import com.blog.repository.KnowledgeRepository;
-import com.blog.util.VectorUtil;
+import com.blog.repository.KnowledgeSearchRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
 
 @Service
 public class SearchService {
 
-    private final KnowledgeRepository knowledgeRepository;
+    private final KnowledgeSearchRepository knowledgeSearchRepository;
+    private final VectorIndex vectorIndex;
     private final AIService aiService;
+    private final int hybridCandidates;
+    private final int rrfK;
+    private final int defaultEfSearch;
 
-    public SearchService(KnowledgeRepository knowledgeRepository, AIService aiService) {
-        this.knowledgeRepository = knowledgeRepository;
+    public SearchService(
+            KnowledgeSearchRepository knowledgeSearchRepository,
+            VectorIndex vectorIndex,
+            AIService aiService,
+            @Value("${app.search.hybrid-candidates:50}") int hybridCandidates,
+            @Value("${app.search.rrf-k:60}") int rrfK,
+            @Value("${app.search.ef-search:40}") int defaultEfSearch) {
+        this.knowledgeSearchRepository = knowledgeSearchRepository;
+        this.vectorIndex = vectorIndex;
         this.aiService = aiService;
+        this.hybridCandidates = Math.max(1, hybridCandidates);
+        this.rrfK = Math.max(1, rrfK);
+        this.defaultEfSearch = defaultEfSearch;
     }
 
     public List<KnowledgeVO> vectorSearch(String query, int limit, float threshold) {
-        float[] embedding = aiService.generateEmbedding(query);
-        String embeddingText = VectorUtil.toVectorString(embedding);
-        List<Object[]> rows = knowledgeRepository.searchSimilarRaw(embeddingText, threshold, limit);
+        return vectorSearch(query, limit, threshold, null, KnowledgeFilter.NONE);
+    }
 
-        List<KnowledgeVO> results = new ArrayList<>();
-        for (Object[] row : rows) {
-            Long id = ((Number) row[0]).longValue();
-            String title = (String) row[1];
-            String content = (String) row[2];
-            String source = (String) row[3];
-            Double similarity = row[4] == null ? null : ((Number) row[4]).doubleValue();
-            results.add(new KnowledgeVO(id, title, content, similarity, source));
-        }
-        return results;
+    /**
+     * @param efSearch HNSW candidate list size for this query; null uses app.search.ef-search
+     * @param filter   metadata restrictions applied inside the index scan
+     */
+    public List<KnowledgeVO> vectorSearch(String query, int limit, float threshold, Integer efSearch,
+                                          KnowledgeFilter filter) {
+        float[] embedding = aiService.generateEmbedding(query);
+        int ef = efSearch == null ? defaultEfSearch : efSearch;
+        return vectorIndex.search(embedding, threshold, limit, ef, filter);
     }
 
-    public List<KnowledgeVO> hybridSearch(String query, int limit, float threshold) {
-        List<KnowledgeVO> vectorResults = vectorSearch(query, limit, threshold);
-        List<KnowledgeVO> textResults = knowledgeRepository
-                .findByChunkContentContainingIgnoreCase(query)
-                .stream()
-                .map(this::toVO)
-                .collect(Collectors.toList());
+    /**
+     * Vector and keyword search fused with weighted reciprocal rank fusion: each branch returns its
+     * own top candidates and a chunk scores {@code weight / (k + rank)} per branch it appears in.
+     * A zero weight skips that branch entirely.
+     */
+    public List<KnowledgeVO> hybridSearch(String query, int limit, float threshold,
+                                          float vectorWeight, float textWeight, Integer efSearch,
+                                          KnowledgeFilter filter) {
+        int depth = Math.max(limit, hybridCandidates);
+        List<KnowledgeVO> vectorResults = vectorWeight > 0
+                ? vectorSearch(query, depth, threshold, efSearch, filter)
+                : List.of();
+        List<KnowledgeVO> textResults = textWeight > 0
+                ? knowledgeSearchRepository.searchText(query, depth, filter)
+                : List.of();
 
-        return mergeAndRank(vectorResults, textResults, limit);
+        return fuse(vectorResults, vectorWeight, textResults, textWeight, limit);
     }
 
     public String webSearch(String query) {
@@ -64,24 +85,39 @@ public class SearchService {
         return aiService.searchNewsWithSources(query);
     }
 
-    private KnowledgeVO toVO(KnowledgeBase kb) {
-        // Text match implies exact keyword match, assign high similarity
-        return new KnowledgeVO(kb.getId(), kb.getTitle(), kb.getChunkContent(), 1.0, kb.getSourceType());
-    }
+    private List<KnowledgeVO> fuse(List<KnowledgeVO> vectorResults, float vectorWeight,
+                                   List<KnowledgeVO> textResults, float textWeight, int limit) {
+        Map<Long, KnowledgeVO> candidates = new HashMap<>();
+        addRanked(candidates, vectorResults, vectorWeight);
+        addRanked(candidates, textResults, textWeight);
 
-    private List<KnowledgeVO> mergeAndRank(List<KnowledgeVO> vectorResults, List<KnowledgeVO> textResults, int limit) {
-        Map<Long, KnowledgeVO> merged = new HashMap<>();
-        for (KnowledgeVO vo : vectorResults) {
-            merged.put(vo.getId(), vo);
+        // Min-heap of the best `limit` candidates seen so far; the weakest is evicted first
+        Comparator<KnowledgeVO> byScore = Comparator.comparingDouble(KnowledgeVO::getScore)
+                .thenComparing(KnowledgeVO::getId, Comparator.reverseOrder());
+        PriorityQueue<KnowledgeVO> top = new PriorityQueue<>(limit + 1, byScore);
+        for (KnowledgeVO vo : candidates.values()) {
+            top.offer(vo);
+            if (top.size() > limit) {
+                top.poll();
+            }
         }
-        for (KnowledgeVO vo : textResults) {
-            merged.putIfAbsent(vo.getId(), vo);
+
+        List<KnowledgeVO> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(top.poll());
         }
+        Collections.reverse(results);
+        return results;
+    }
 
-        return merged.values().stream()
-                .sorted(Comparator.comparing((KnowledgeVO vo) -> vo.getSimilarity() == null ? 0.0 : vo.getSimilarity())
-                        .reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+    private void addRanked(Map<Long, KnowledgeVO> candidates, List<KnowledgeVO> ranked, float weight) {
+        for (int i = 0; i < ranked.size(); i++) {
+            KnowledgeVO vo = ranked.get(i);
+            double contribution = weight / (double) (rrfK + i + 1);
+            // The vector hit is added first and keeps its cosine similarity
+            KnowledgeVO existing = candidates.putIfAbsent(vo.getId(), vo);
+            KnowledgeVO target = existing == null ? vo : existing;
+            target.setScore((target.getScore() == null ? 0.0 : target.getScore()) + contribution);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.blog.service;
+
+import com.blog.model.vo.StatsVO;
+import com.blog.repository.StatsRepository;
+import com.blog.util.CacheStatsProvider;
+import com.blog.util.InstrumentedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard statistics. The snapshot is recomputed at most once per TTL; concurrent callers
+ * during a refresh wait for it instead of issuing their own queries.
+ */
+@Service
+public class StatsService {
+
+    private final StatsRepository statsRepository;
+    private final List<CacheStatsProvider> caches;
+    private final List<InstrumentedExecutor> executors;
+    private final long ttlMillis;
+
+    private volatile StatsVO snapshot;
+    private volatile long snapshotAt;
+
+    public StatsService(
+            StatsRepository statsRepository,
+            List<CacheStatsProvider> caches,
+            List<InstrumentedExecutor> executors,
+            @Value("${app.stats.cache-ttl-ms:10000}") long ttlMillis) {
+        this.statsRepository = statsRepository;
+        this.caches = caches;
+        this.executors = executors;
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    public StatsVO getStats() {
+        StatsVO current = snapshot;
+        if (current != null && System.currentTimeMillis() - snapshotAt < ttlMillis) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot != null && System.currentTimeMillis() - snapshotAt < ttlMillis) {
+                return snapshot;
+            }
+            StatsVO fresh = compute();
+            snapshot = fresh;
+            snapshotAt = System.currentTimeMillis();
+            return fresh;
+        }
+    }
+
+    /**
+     * Hit/miss counters of every registered cache, keyed by cache name. Not cached.
+     */
+    public Map<String, Map<String, Object>> getCacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (CacheStatsProvider cache : caches) {
+            stats.put(cache.cacheName(), cache.cacheStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Concurrency and latency counters of the shared I/O executors, keyed by executor name.
+     */
+    public Map<String, Map<String, Object>> getExecutorStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (InstrumentedExecutor executor : executors) {
+            stats.put(executor.name(), executor.stats());
+        }
+        return stats;
+    }
+
+    private StatsVO compute() {
+        Map<String, Map<String, Long>> counts = statsRepository.countAll();
+        Map<String, Long> knowledge = counts.getOrDefault("knowledge", Map.of());
+        Map<String, Long> documents = counts.getOrDefault("documents", Map.of());
+        Map<String, Long> articles = counts.getOrDefault("articles", Map.of());
+        Map<String, Long> news = counts.getOrDefault("news", Map.of());
+
+        StatsVO stats = new StatsVO();
+        stats.setKnowledgeCount(sum(knowledge));
+        stats.setDocumentCount(sum(documents));
+        stats.setArticleCount(articles.getOrDefault("published", 0L));
+        stats.setNewsCount(news.getOrDefault("featured", 0L));
+        stats.setKnowledgeBySourceType(knowledge);
+        stats.setDocumentsBySourceType(documents);
+        stats.setImportsByStatus(counts.getOrDefault("imports", Map.of()));
+        stats.setArticlesByStatus(articles);
+        stats.setNewsByFeatured(news);
+        stats.setGeneratedAt(LocalDateTime.now());
+        return stats;
+    }
+
+    private static long sum(Map<String, Long> buckets) {
+        long total = 0;
+        for (long count : buckets.values()) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,21 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+
+import java.util.List;
+
+/**
+ * Nearest-neighbour search over knowledge_base chunk embeddings.
+ * The engine is chosen by app.vector.engine (see VectorIndexConfig).
+ */
+public interface VectorIndex {
+
+    /**
+     * Up to {@code limit} chunks with cosine similarity above {@code threshold}, most similar first.
+     *
+     * @param efSearch HNSW candidate list size; higher trades latency for recall
+     * @param filter   metadata restrictions; {@link KnowledgeFilter#NONE} for none
+     */
+    List<KnowledgeVO> search(float[] embedding, float threshold, int limit, int efSearch, KnowledgeFilter filter);
+}
@@ -0,0 +1,195 @@
+package com.blog.service;
+
+import com.blog.util.CacheKeys;
+import com.blog.util.InstrumentedExecutor;
+import com.blog.util.SwrCache;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bing web scraping with the Bing News RSS feed as fallback.
+ * All sub-searches of a request (every query, web page and RSS feed) are fetched concurrently
+ * under one shared deadline; RSS is fetched speculatively and only used for queries whose web
+ * search found nothing. Results are merged in query order and deduplicated by URL.
+ * Per-query results are cached in the stale-while-revalidate webResultCache.
+ */
+@Service
+public class WebSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSearchService.class);
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final int FETCH_TIMEOUT_MILLIS = 6000;
+    private static final int MAX_RESULTS_PER_QUERY = 6;
+
+    private final InstrumentedExecutor webFetchExecutor;
+    private final SwrCache<List<WebSearchResult>> resultCache;
+    private final long deadlineMillis;
+
+    public WebSearchService(
+            @Qualifier("webFetchExecutor") InstrumentedExecutor webFetchExecutor,
+            @Qualifier("webResultCache") SwrCache<List<WebSearchResult>> resultCache,
+            @Value("${app.search.web-deadline-ms:6500}") long deadlineMillis) {
+        this.webFetchExecutor = webFetchExecutor;
+        this.resultCache = resultCache;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Search all queries at once. The returned map has an entry per query, in the given order,
+     * holding that query's results that were not already returned for an earlier query.
+     */
+    public Map<String, List<WebSearchResult>> search(List<String> queries) {
+        List<CompletableFuture<List<WebSearchResult>>> futures = new ArrayList<>();
+        for (String query : queries) {
+            String key = CacheKeys.sha256(CacheKeys.normalize(query));
+            futures.add(resultCache.getAsync(key, () -> fetchQuery(query)));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            // Deadline reached or a fetch failed; use whatever has completed
+            log.debug("Web search for {} finished partially: {}", queries, ex.toString());
+        }
+
+        Map<String, List<WebSearchResult>> merged = new LinkedHashMap<>();
+        Set<String> seenUrls = new HashSet<>();
+        for (int i = 0; i < queries.size(); i++) {
+            List<WebSearchResult> unique = new ArrayList<>();
+            for (WebSearchResult result : completedOrEmpty(futures.get(i))) {
+                String key = normalizeUrl(result.url());
+                if (key == null || seenUrls.add(key)) {
+                    unique.add(result);
+                }
+            }
+            merged.put(queries.get(i), unique);
+        }
+        return merged;
+    }
+
+    /**
+     * Fetch the results page and the news RSS feed for one query at the same time; the RSS
+     * results are used only when the page has none. Completes with null (not cached) when both are empty.
+     */
+    private CompletableFuture<List<WebSearchResult>> fetchQuery(String query) {
+        CompletableFuture<List<WebSearchResult>> web = webFetchExecutor.supply(() -> fetchWeb(query));
+        CompletableFuture<List<WebSearchResult>> rss = webFetchExecutor.supply(() -> fetchNewsRss(query));
+        return web.thenCompose(results -> results.isEmpty() ? rss : CompletableFuture.completedFuture(results))
+                .thenApply(results -> results.isEmpty() ? null : results);
+    }
+
+    private List<WebSearchResult> completedOrEmpty(CompletableFuture<List<WebSearchResult>> future) {
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            return List.of();
+        }
+        List<WebSearchResult> results = future.join();
+        return results == null ? List.of() : results;
+    }
+
+    private List<WebSearchResult> fetchWeb(String query) {
+        List<WebSearchResult> results = new ArrayList<>();
+        try {
+            String searchUrl = "https://cn.bing.com/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+            Document doc = Jsoup.connect(searchUrl)
+                    .userAgent(USER_AGENT)
+                    .header("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8")
+                    .header("Cookie", "SRCHHPGUSR=CW=1600&CH=900; _EDGE_S=F=1; MUIDB=1")
+                    .timeout(FETCH_TIMEOUT_MILLIS)
+                    .get();
+
+            for (Element result : doc.select("li.b_algo")) {
+                if (results.size() >= MAX_RESULTS_PER_QUERY) {
+                    break;
+                }
+                Element titleEl = result.selectFirst("h2 a");
+                Element snippetEl = result.selectFirst(".b_caption p");
+                if (snippetEl == null) {
+                    snippetEl = result.selectFirst(".b_algoSlug");
+                }
+                if (titleEl != null) {
+                    results.add(new WebSearchResult(
+                            titleEl.text(),
+                            snippetEl != null ? snippetEl.text() : "",
+                            titleEl.attr("href"),
+                            "web"));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Bing Web Search (cn.bing.com) failed: {}", e.getMessage());
+        }
+        return results;
+    }
+
+    private List<WebSearchResult> fetchNewsRss(String query) {
+        List<WebSearchResult> results = new ArrayList<>();
+        try {
+            String rssUrl = "https://cn.bing.com/news/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)
+                    + "&format=rss";
+            Document rssDoc = Jsoup.connect(rssUrl)
+                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64)")
+                    .parser(org.jsoup.parser.Parser.xmlParser())
+                    .timeout(FETCH_TIMEOUT_MILLIS)
+                    .get();
+
+            for (Element item : rssDoc.select("item")) {
+                if (results.size() >= MAX_RESULTS_PER_QUERY) {
+                    break;
+                }
+                String title = item.select("title").text();
+                String desc = item.select("description").text(); // RSS desc might be HTML
+                if (!title.isEmpty()) {
+                    results.add(new WebSearchResult(
+                            title,
+                            desc.isEmpty() ? "" : Jsoup.parse(desc).text(),
+                            item.select("link").text(),
+                            "news-rss"));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Bing News RSS failed: {}", e.getMessage());
+        }
+        return results;
+    }
+
+    private static String normalizeUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String normalized = url.strip();
+        int fragment = normalized.indexOf('#');
+        if (fragment >= 0) {
+            normalized = normalized.substring(0, fragment);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized.replaceFirst("^(?i)https?://", "");
+    }
+
+    /**
+     * One search hit. {@code origin} is "web" for the scraped results page, "news-rss" for the RSS feed.
+     */
+    public record WebSearchResult(String title, String snippet, String url, String origin) {
+    }
+}
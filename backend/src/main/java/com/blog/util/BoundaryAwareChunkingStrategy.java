@@ -0,0 +1,281 @@
+package com.blog.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Chunks text on structural boundaries within a token budget.
+ * A chunk ends at the strongest boundary found in its window, in this order: a Markdown ATX heading
+ * (one to six '#' and a space) or code fence, a blank line, a sentence end (including 。！？), a clause mark or line break,
+ * whitespace, and only then a hard cut. Sentence and clause marks are ignored inside ``` fences.
+ * Consecutive chunks share roughly {@code overlapTokens} tokens, starting on a word or sentence edge;
+ * there is no overlap across a heading or code fence.
+ * <p>
+ * Tokens are estimated, not counted by a real tokenizer: one per CJK or punctuation character
+ * and one per four ASCII letters or digits.
+ */
+public final class BoundaryAwareChunkingStrategy implements ChunkingStrategy {
+
+    private static final int UNITS_PER_TOKEN = 4;
+
+    private static final int HARD_CUT = 0;
+    private static final int WHITESPACE = 1;
+    private static final int CLAUSE = 2;
+    private static final int SENTENCE = 3;
+    private static final int PARAGRAPH = 4;
+    private static final int SECTION = 5;
+    private static final int MAX_HEADING_LEVEL = 6;
+
+    private final int maxUnits;
+    private final int minUnits;
+    private final int overlapUnits;
+
+    public BoundaryAwareChunkingStrategy(int maxTokens, int overlapTokens) {
+        if (maxTokens <= 0) {
+            throw new IllegalArgumentException("maxTokens must be positive");
+        }
+        this.maxUnits = maxTokens * UNITS_PER_TOKEN;
+        this.minUnits = maxUnits / 4;
+        this.overlapUnits = Math.max(0, Math.min(overlapTokens, maxTokens / 2)) * UNITS_PER_TOKEN;
+    }
+
+    @Override
+    public Iterator<Chunk> chunks(CharSequence text) {
+        return new ChunkIterator(text == null ? "" : text);
+    }
+
+    private static int cost(char c) {
+        if (Character.isWhitespace(c)) {
+            return 0;
+        }
+        if (c < 0x80 && Character.isLetterOrDigit(c)) {
+            return 1;
+        }
+        return UNITS_PER_TOKEN;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '。' || c == '！' || c == '？' || c == '!' || c == '?' || c == '…';
+    }
+
+    private static boolean isClauseMark(char c) {
+        return c == '，' || c == '；' || c == '：' || c == '、' || c == ',' || c == ';' || c == ':';
+    }
+
+    private final class ChunkIterator implements Iterator<Chunk> {
+
+        private final CharSequence text;
+        private final int length;
+        /** End of the last boundary of each priority seen by {@link #findEnd}; reused per chunk. */
+        private final int[] best = new int[SECTION + 1];
+        private int position;
+        private boolean inFence;
+        private int endBoundary;
+        private Chunk next;
+
+        private ChunkIterator(CharSequence text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < length) {
+                int start = skipWhitespace(position);
+                if (start >= length) {
+                    position = length;
+                    break;
+                }
+                if (start > position) {
+                    inFence = fenceStateAfter(position, start, inFence);
+                }
+                int end = findEnd(start);
+                int trimmedEnd = trimEnd(start, end);
+                int nextStart = nextStart(start, end);
+                inFence = fenceStateAfter(start, nextStart, inFence);
+                position = nextStart;
+                if (trimmedEnd > start) {
+                    next = new Chunk(text.subSequence(start, trimmedEnd).toString(), start, trimmedEnd);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Chunk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Chunk chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        /**
+         * Scan forward from {@code start} until the budget is spent and return the end of the
+         * strongest boundary seen after the minimum chunk size.
+         */
+        private int findEnd(int start) {
+            Arrays.fill(best, 0);
+            boolean fence = inFence;
+            int units = 0;
+            int i = start;
+            while (i < length) {
+                char c = text.charAt(i);
+                if (isLineStart(i) && startsWith(i, "```")) {
+                    fence = !fence;
+                }
+                int cost = cost(c);
+                if (units + cost > maxUnits && i > start) {
+                    break;
+                }
+                units += cost;
+                i++;
+                if (units < minUnits) {
+                    continue;
+                }
+
+                int priority = boundaryAt(i, c, fence);
+                if (priority > HARD_CUT) {
+                    best[priority] = i;
+                }
+            }
+            if (i >= length) {
+                endBoundary = SECTION;
+                return length;
+            }
+            for (int priority = SECTION; priority > HARD_CUT; priority--) {
+                if (best[priority] > start) {
+                    endBoundary = priority;
+                    return best[priority];
+                }
+            }
+            endBoundary = HARD_CUT;
+            return avoidSurrogateSplit(i, start);
+        }
+
+        /**
+         * Strength of a break placed right after character {@code c}, which ends at {@code end}.
+         */
+        private int boundaryAt(int end, char c, boolean fence) {
+            if (c == '\n') {
+                if (end < length && !fence && (isHeading(end) || startsWith(end, "```"))) {
+                    return SECTION;
+                }
+                if (lineBeforeIsFence(end - 1)) {
+                    return fence ? PARAGRAPH : SECTION;
+                }
+                if (end < length && text.charAt(end) == '\n') {
+                    return PARAGRAPH;
+                }
+                return CLAUSE;
+            }
+            if (Character.isWhitespace(c)) {
+                return WHITESPACE;
+            }
+            if (fence) {
+                return HARD_CUT;
+            }
+            if (isSentenceEnd(c)) {
+                return SENTENCE;
+            }
+            if (c == '.' && (end >= length || Character.isWhitespace(text.charAt(end)))) {
+                return SENTENCE;
+            }
+            if (isClauseMark(c)) {
+                return CLAUSE;
+            }
+            return HARD_CUT;
+        }
+
+        /**
+         * Start of the chunk after [start, end): back off by the overlap budget, then move
+         * forward to the first word or sentence edge so the overlap does not begin mid-word.
+         */
+        private int nextStart(int start, int end) {
+            if (overlapUnits == 0 || end >= length || endBoundary == SECTION) {
+                return end;
+            }
+            int units = 0;
+            int p = end;
+            while (p > start && units < overlapUnits) {
+                p--;
+                units += cost(text.charAt(p));
+            }
+            for (int q = p; q < end; q++) {
+                char previous = q > 0 ? text.charAt(q - 1) : ' ';
+                if (Character.isWhitespace(previous) || isSentenceEnd(previous) || isClauseMark(previous)) {
+                    return q > start ? q : end;
+                }
+            }
+            return end;
+        }
+
+        private boolean fenceStateAfter(int from, int to, boolean state) {
+            boolean fence = state;
+            for (int i = from; i < to; i++) {
+                if (isLineStart(i) && startsWith(i, "```")) {
+                    fence = !fence;
+                }
+            }
+            return fence;
+        }
+
+        private boolean lineBeforeIsFence(int newline) {
+            int lineStart = newline;
+            while (lineStart > 0 && text.charAt(lineStart - 1) != '\n') {
+                lineStart--;
+            }
+            return startsWith(lineStart, "```");
+        }
+
+        /**
+         * Whether an ATX heading starts at {@code i}; "#hashtag" or "#include" is not one.
+         */
+        private boolean isHeading(int i) {
+            int level = 0;
+            while (i + level < length && level <= MAX_HEADING_LEVEL && text.charAt(i + level) == '#') {
+                level++;
+            }
+            return level >= 1 && level <= MAX_HEADING_LEVEL && i + level < length && text.charAt(i + level) == ' ';
+        }
+
+        private boolean isLineStart(int i) {
+            return i == 0 || text.charAt(i - 1) == '\n';
+        }
+
+        private boolean startsWith(int i, String prefix) {
+            if (i + prefix.length() > length) {
+                return false;
+            }
+            for (int k = 0; k < prefix.length(); k++) {
+                if (text.charAt(i + k) != prefix.charAt(k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int skipWhitespace(int i) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private int trimEnd(int start, int end) {
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            return end;
+        }
+
+        private int avoidSurrogateSplit(int end, int start) {
+            if (end - 1 > start && Character.isHighSurrogate(text.charAt(end - 1))) {
+                return end - 1;
+            }
+            return end;
+        }
+    }
+}
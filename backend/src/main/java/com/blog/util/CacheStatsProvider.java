@@ -0,0 +1,13 @@
+package com.blog.util;
+
+import java.util.Map;
+
+/**
+ * Implemented by caches whose hit/miss counters are exposed under /api/stats/caches.
+ */
+public interface CacheStatsProvider {
+
+    String cacheName();
+
+    Map<String, Object> cacheStats();
+}
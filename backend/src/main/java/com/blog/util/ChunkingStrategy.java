@@ -0,0 +1,32 @@
+package com.blog.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Splits document text into chunks for embedding.
+ * Implementations iterate lazily over the input and only allocate the chunks they emit.
+ */
+public interface ChunkingStrategy {
+
+    /**
+     * Lazily split the text; chunks come out in document order.
+     */
+    Iterator<Chunk> chunks(CharSequence text);
+
+    default List<String> split(CharSequence text) {
+        List<String> result = new ArrayList<>();
+        Iterator<Chunk> iterator = chunks(text);
+        while (iterator.hasNext()) {
+            result.add(iterator.next().text());
+        }
+        return result;
+    }
+
+    /**
+     * One chunk and the [start, end) span of the input it was cut from.
+     */
+    record Chunk(String text, int start, int end) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.blog.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Cuts text into fixed character windows, ignoring sentence and paragraph boundaries.
+ */
+public final class FixedSizeChunkingStrategy implements ChunkingStrategy {
+
+    private final int chunkSize;
+
+    public FixedSizeChunkingStrategy(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Iterator<Chunk> chunks(CharSequence text) {
+        CharSequence source = text == null ? "" : text;
+        return new Iterator<>() {
+            private int start;
+            private Chunk next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && start < source.length()) {
+                    int end = Math.min(source.length(), start + chunkSize);
+                    String chunk = source.subSequence(start, end).toString().trim();
+                    if (!chunk.isEmpty()) {
+                        next = new Chunk(chunk, start, end);
+                    }
+                    start = end;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Chunk next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Chunk chunk = next;
+                next = null;
+                return chunk;
+            }
+        };
+    }
+}
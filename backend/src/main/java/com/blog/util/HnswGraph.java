@@ -0,0 +1,590 @@
+package com.blog.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical navigable small world graph over cosine similarity.
+ * <p>
+ * Vectors are L2-normalised on insert and stored in fixed-size {@code float[]} blocks, level-0
+ * adjacency lists in {@code int[]} blocks; only the few nodes above level 0 get per-node arrays.
+ * Each node carries a {@code long} label (the caller's id) and a fixed number of {@code long}
+ * attributes the caller can filter on. Removal only tombstones a node: it stays in the graph for
+ * navigation and is skipped in results; {@link #compact()} rebuilds without tombstones.
+ * <p>
+ * Not thread-safe for writes. Concurrent {@link #search} calls are safe while no write is running.
+ */
+public final class HnswGraph {
+
+    private static final int MAGIC = 0x48534e57;
+    private static final int VERSION = 1;
+    private static final int BLOCK_SHIFT = 12;
+    private static final int BLOCK_NODES = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_NODES - 1;
+    private static final int MAX_LEVEL = 16;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int attributeCount;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ConcurrentLinkedQueue<VisitedSet> visitedPool = new ConcurrentLinkedQueue<>();
+
+    private float[][] vectorBlocks = new float[0][];
+    private int[][] linkBlocks = new int[0][];
+    private int[][][] upperLinks = new int[0][][];
+    private long[] labels = new long[0];
+    private byte[] levels = new byte[0];
+    private long[] attributes = new long[0];
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> nodeByLabel = new HashMap<>();
+    private int size;
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswGraph(int dimension, int m, int efConstruction, int attributeCount) {
+        if (dimension <= 0 || m < 2) {
+            throw new IllegalArgumentException("dimension must be positive and m at least 2");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.attributeCount = Math.max(0, attributeCount);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Number of live (not removed) nodes. */
+    public int liveCount() {
+        return size - deletedCount;
+    }
+
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    public boolean contains(long label) {
+        return nodeByLabel.containsKey(label);
+    }
+
+    /**
+     * Attribute {@code index} of the live node labelled {@code label}, or {@code missing} if absent.
+     */
+    public long attribute(long label, int index, long missing) {
+        Integer node = nodeByLabel.get(label);
+        return node == null ? missing : attributes[node * attributeCount + index];
+    }
+
+    public long attributeOfNode(int node, int index) {
+        return attributes[node * attributeCount + index];
+    }
+
+    public long[] labels() {
+        long[] result = new long[liveCount()];
+        int i = 0;
+        for (int node = 0; node < size; node++) {
+            if (!deleted.get(node)) {
+                result[i++] = labels[node];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Insert a vector, replacing (tombstoning) any live node with the same label.
+     */
+    public void add(long label, float[] vector, long[] nodeAttributes) {
+        if (vector == null || vector.length != dimension) {
+            throw new IllegalArgumentException("expected a vector of dimension " + dimension);
+        }
+        remove(label);
+        int node = allocate(label, nodeAttributes);
+        float[] block = vectorBlocks[node >>> BLOCK_SHIFT];
+        int offset = (node & BLOCK_MASK) * dimension;
+        System.arraycopy(vector, 0, block, offset, dimension);
+        VectorMath.normalize(block, offset, dimension);
+        link(node);
+    }
+
+    /**
+     * Tombstone the node with this label; returns whether one was live.
+     */
+    public boolean remove(long label) {
+        Integer node = nodeByLabel.remove(label);
+        if (node == null) {
+            return false;
+        }
+        deleted.set(node);
+        deletedCount++;
+        return true;
+    }
+
+    /**
+     * Up to {@code k} live nodes accepted by {@code filter} (null accepts all), most similar first.
+     * A filtered search keeps exploring until it has {@code ef} accepted nodes or runs out of graph.
+     */
+    public List<Hit> search(float[] query, int k, int ef, IntPredicate filter) {
+        if (entryPoint < 0 || k <= 0 || liveCount() == 0) {
+            return List.of();
+        }
+        float[] q = Arrays.copyOf(query, dimension);
+        VectorMath.normalize(q, 0, dimension);
+        int ep = entryPoint;
+        for (int level = maxLevel; level > 0; level--) {
+            ep = greedyClosest(q, ep, level);
+        }
+        IntPredicate accept = filter == null
+                ? node -> !deleted.get(node)
+                : node -> !deleted.get(node) && filter.test(node);
+        NodeHeap results = searchLayer(q, ep, Math.max(ef, k), 0, accept);
+        int count = Math.min(k, results.size());
+        Hit[] hits = new Hit[count];
+        while (results.size() > count) {
+            results.pop();
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            float distance = results.topKey();
+            int node = results.pop();
+            hits[i] = new Hit(labels[node], 1.0 - distance);
+        }
+        return Arrays.asList(hits);
+    }
+
+    /**
+     * A new graph containing only the live nodes.
+     */
+    public HnswGraph compact() {
+        HnswGraph copy = new HnswGraph(dimension, m, efConstruction, attributeCount);
+        float[] vector = new float[dimension];
+        long[] nodeAttributes = new long[attributeCount];
+        for (int node = 0; node < size; node++) {
+            if (deleted.get(node)) {
+                continue;
+            }
+            System.arraycopy(vectorBlocks[node >>> BLOCK_SHIFT], (node & BLOCK_MASK) * dimension, vector, 0, dimension);
+            System.arraycopy(attributes, node * attributeCount, nodeAttributes, 0, attributeCount);
+            copy.add(labels[node], vector, nodeAttributes);
+        }
+        return copy;
+    }
+
+    public void writeTo(MappedSnapshot.Writer out) throws IOException {
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(dimension);
+        out.putInt(m);
+        out.putInt(efConstruction);
+        out.putInt(attributeCount);
+        out.putInt(size);
+        out.putInt(entryPoint);
+        out.putInt(maxLevel);
+        out.putLongs(labels, 0, size);
+        out.putBytes(levels, 0, size);
+        out.putLongs(attributes, 0, size * attributeCount);
+        long[] deletedWords = deleted.toLongArray();
+        out.putInt(deletedWords.length);
+        out.putLongs(deletedWords, 0, deletedWords.length);
+        for (int b = 0; b * BLOCK_NODES < size; b++) {
+            int nodes = Math.min(BLOCK_NODES, size - b * BLOCK_NODES);
+            out.putFloats(vectorBlocks[b], 0, nodes * dimension);
+            out.putInts(linkBlocks[b], 0, nodes * (maxM0 + 1));
+        }
+        for (int node = 0; node < size; node++) {
+            for (int level = 1; level <= levels[node]; level++) {
+                out.putInts(upperLinks[node][level - 1], 0, m + 1);
+            }
+        }
+    }
+
+    public static HnswGraph readFrom(MappedSnapshot.Reader in) throws IOException {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not an HNSW graph snapshot");
+        }
+        HnswGraph graph = new HnswGraph(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+        int size = in.getInt();
+        int entryPoint = in.getInt();
+        int maxLevel = in.getInt();
+        graph.ensureCapacity(size);
+        in.getLongs(graph.labels, 0, size);
+        in.getBytes(graph.levels, 0, size);
+        in.getLongs(graph.attributes, 0, size * graph.attributeCount);
+        long[] deletedWords = new long[in.getInt()];
+        in.getLongs(deletedWords, 0, deletedWords.length);
+        graph.deleted.or(BitSet.valueOf(deletedWords));
+        for (int b = 0; b * BLOCK_NODES < size; b++) {
+            int nodes = Math.min(BLOCK_NODES, size - b * BLOCK_NODES);
+            in.getFloats(graph.vectorBlocks[b], 0, nodes * graph.dimension);
+            in.getInts(graph.linkBlocks[b], 0, nodes * (graph.maxM0 + 1));
+        }
+        for (int node = 0; node < size; node++) {
+            int level = graph.levels[node];
+            if (level > 0) {
+                graph.upperLinks[node] = new int[level][graph.m + 1];
+                for (int l = 1; l <= level; l++) {
+                    in.getInts(graph.upperLinks[node][l - 1], 0, graph.m + 1);
+                }
+            }
+            if (!graph.deleted.get(node)) {
+                graph.nodeByLabel.put(graph.labels[node], node);
+            }
+        }
+        graph.size = size;
+        graph.deletedCount = graph.deleted.cardinality();
+        graph.entryPoint = entryPoint;
+        graph.maxLevel = maxLevel;
+        return graph;
+    }
+
+    private int allocate(long label, long[] nodeAttributes) {
+        int node = size;
+        ensureCapacity(node + 1);
+        size++;
+        int level = Math.min(MAX_LEVEL, (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier));
+        levels[node] = (byte) level;
+        labels[node] = label;
+        linkBlocks[node >>> BLOCK_SHIFT][(node & BLOCK_MASK) * (maxM0 + 1)] = 0;
+        upperLinks[node] = level == 0 ? null : new int[level][m + 1];
+        if (nodeAttributes != null) {
+            System.arraycopy(nodeAttributes, 0, attributes, node * attributeCount,
+                    Math.min(attributeCount, nodeAttributes.length));
+        }
+        nodeByLabel.put(label, node);
+        return node;
+    }
+
+    private void ensureCapacity(int nodes) {
+        int blocks = (nodes + BLOCK_NODES - 1) >>> BLOCK_SHIFT;
+        if (blocks > vectorBlocks.length) {
+            int oldBlocks = vectorBlocks.length;
+            vectorBlocks = Arrays.copyOf(vectorBlocks, blocks);
+            linkBlocks = Arrays.copyOf(linkBlocks, blocks);
+            for (int b = oldBlocks; b < blocks; b++) {
+                vectorBlocks[b] = new float[BLOCK_NODES * dimension];
+                linkBlocks[b] = new int[BLOCK_NODES * (maxM0 + 1)];
+            }
+        }
+        if (nodes > labels.length) {
+            int capacity = Math.max(nodes, Math.max(BLOCK_NODES, labels.length + (labels.length >> 1)));
+            labels = Arrays.copyOf(labels, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            attributes = Arrays.copyOf(attributes, capacity * attributeCount);
+            upperLinks = Arrays.copyOf(upperLinks, capacity);
+        }
+    }
+
+    private void link(int node) {
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = levels[node];
+            return;
+        }
+        float[] vector = vectorOf(node);
+        int level = levels[node];
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(vector, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(vector, ep, efConstruction, l, other -> other != node);
+            int[] nearestFirst = candidates.drainNearestFirst();
+            if (nearestFirst.length == 0) {
+                continue;
+            }
+            int[] selected = selectNeighbours(vector, nearestFirst, l == 0 ? maxM0 : m);
+            setLinks(node, l, selected, selected.length);
+            for (int neighbour : selected) {
+                addLink(neighbour, node, l);
+            }
+            ep = nearestFirst[0];
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * HNSW neighbour heuristic: keep a candidate only if it is closer to the base vector than to
+     * every neighbour already kept, which preserves links in different directions.
+     */
+    private int[] selectNeighbours(float[] base, int[] nearestFirst, int max) {
+        int[] selected = new int[Math.min(max, nearestFirst.length)];
+        int count = 0;
+        for (int candidate : nearestFirst) {
+            if (count >= max) {
+                break;
+            }
+            float toBase = distance(base, candidate);
+            boolean keep = true;
+            for (int i = 0; i < count; i++) {
+                if (distanceBetween(candidate, selected[i]) < toBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private void addLink(int from, int to, int level) {
+        int[] links = level == 0 ? linkBlocks[from >>> BLOCK_SHIFT] : upperLinks[from][level - 1];
+        int offset = level == 0 ? (from & BLOCK_MASK) * (maxM0 + 1) : 0;
+        int max = level == 0 ? maxM0 : m;
+        int count = links[offset];
+        if (count < max) {
+            links[offset + 1 + count] = to;
+            links[offset] = count + 1;
+            return;
+        }
+        float[] base = vectorOf(from);
+        NodeHeap candidates = new NodeHeap(count + 1, false);
+        for (int i = 0; i < count; i++) {
+            int neighbour = links[offset + 1 + i];
+            candidates.push(neighbour, distance(base, neighbour));
+        }
+        candidates.push(to, distance(base, to));
+        int[] selected = selectNeighbours(base, candidates.drainNearestFirst(), max);
+        setLinks(from, level, selected, selected.length);
+    }
+
+    private void setLinks(int node, int level, int[] neighbours, int count) {
+        int[] links = level == 0 ? linkBlocks[node >>> BLOCK_SHIFT] : upperLinks[node][level - 1];
+        int offset = level == 0 ? (node & BLOCK_MASK) * (maxM0 + 1) : 0;
+        links[offset] = count;
+        System.arraycopy(neighbours, 0, links, offset + 1, count);
+    }
+
+    private int greedyClosest(float[] q, int ep, int level) {
+        int current = ep;
+        float currentDistance = distance(q, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            if (levels[current] < level) {
+                break;
+            }
+            int[] links = upperLinks[current][level - 1];
+            for (int i = 1; i <= links[0]; i++) {
+                int neighbour = links[i];
+                float d = distance(q, neighbour);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbour;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer. Every reachable node is a navigation candidate, but only
+     * nodes passing {@code accept} enter the result heap, which keeps the {@code ef} closest.
+     */
+    private NodeHeap searchLayer(float[] q, int ep, int ef, int level, IntPredicate accept) {
+        VisitedSet visited = borrowVisited();
+        try {
+            NodeHeap candidates = new NodeHeap(ef * 2, true);
+            NodeHeap results = new NodeHeap(ef + 1, false);
+            float epDistance = distance(q, ep);
+            visited.visit(ep);
+            candidates.push(ep, epDistance);
+            if (accept.test(ep)) {
+                results.push(ep, epDistance);
+            }
+            while (candidates.size() > 0) {
+                float candidateDistance = candidates.topKey();
+                if (results.size() >= ef && candidateDistance > results.topKey()) {
+                    break;
+                }
+                int candidate = candidates.pop();
+                int[] links = level == 0 ? linkBlocks[candidate >>> BLOCK_SHIFT] : upperLinks[candidate][level - 1];
+                int offset = level == 0 ? (candidate & BLOCK_MASK) * (maxM0 + 1) : 0;
+                int count = links[offset];
+                for (int i = 1; i <= count; i++) {
+                    int neighbour = links[offset + i];
+                    if (!visited.visit(neighbour)) {
+                        continue;
+                    }
+                    float d = distance(q, neighbour);
+                    if (results.size() < ef || d < results.topKey()) {
+                        candidates.push(neighbour, d);
+                        if (accept.test(neighbour)) {
+                            results.push(neighbour, d);
+                            if (results.size() > ef) {
+                                results.pop();
+                            }
+                        }
+                    }
+                }
+            }
+            return results;
+        } finally {
+            visitedPool.offer(visited);
+        }
+    }
+
+    private VisitedSet borrowVisited() {
+        VisitedSet visited = visitedPool.poll();
+        if (visited == null) {
+            visited = new VisitedSet();
+        }
+        visited.reset(size);
+        return visited;
+    }
+
+    private float[] vectorOf(int node) {
+        int offset = (node & BLOCK_MASK) * dimension;
+        return Arrays.copyOfRange(vectorBlocks[node >>> BLOCK_SHIFT], offset, offset + dimension);
+    }
+
+    private float distance(float[] q, int node) {
+        return 1.0f - VectorMath.dot(q, 0, vectorBlocks[node >>> BLOCK_SHIFT], (node & BLOCK_MASK) * dimension, dimension);
+    }
+
+    private float distanceBetween(int a, int b) {
+        return 1.0f - VectorMath.dot(vectorBlocks[a >>> BLOCK_SHIFT], (a & BLOCK_MASK) * dimension,
+                vectorBlocks[b >>> BLOCK_SHIFT], (b & BLOCK_MASK) * dimension, dimension);
+    }
+
+    /** A search result: the node's label and its cosine similarity to the query. */
+    public record Hit(long label, double similarity) {
+    }
+
+    /**
+     * Generation-stamped visited marks, reused across searches so each one does not allocate
+     * a fresh array the size of the graph.
+     */
+    private static final class VisitedSet {
+
+        private int[] marks = new int[0];
+        private int stamp;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length + (marks.length >> 1))];
+                stamp = 0;
+            }
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        /** Marks the node and returns true if it was not visited before. */
+        boolean visit(int node) {
+            if (marks[node] == stamp) {
+                return false;
+            }
+            marks[node] = stamp;
+            return true;
+        }
+    }
+
+    /**
+     * Binary heap of (distance, node) pairs on primitive arrays; a min-heap yields the nearest
+     * node first, a max-heap the farthest.
+     */
+    private static final class NodeHeap {
+
+        private final boolean min;
+        private float[] keys;
+        private int[] nodes;
+        private int size;
+
+        NodeHeap(int capacity, boolean min) {
+            this.min = min;
+            this.keys = new float[Math.max(4, capacity)];
+            this.nodes = new int[keys.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float topKey() {
+            return keys[0];
+        }
+
+        void push(int node, float key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(key, keys[parent])) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                float key = keys[size];
+                int node = nodes[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && before(keys[child + 1], keys[child])) {
+                        child++;
+                    }
+                    if (!before(keys[child], key)) {
+                        break;
+                    }
+                    keys[i] = keys[child];
+                    nodes[i] = nodes[child];
+                    i = child;
+                }
+                keys[i] = key;
+                nodes[i] = node;
+            }
+            return top;
+        }
+
+        /** Empties a max-heap into an array ordered nearest first. */
+        int[] drainNearestFirst() {
+            if (min) {
+                throw new IllegalStateException("drainNearestFirst needs a max-heap");
+            }
+            int[] result = new int[size];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = pop();
+            }
+            return result;
+        }
+
+        private boolean before(float a, float b) {
+            return min ? a < b : a > b;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.blog.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking I/O tasks on a thread-per-task executor (virtual threads when available) with at most
+ * {@code maxConcurrency} tasks running at once; further tasks wait for a slot on their own thread.
+ * Counts submitted, completed and failed tasks, active and peak concurrency, and the time spent
+ * waiting for a slot and running.
+ * <p>
+ * Deliberately not an {@link java.util.concurrent.Executor}, so registering it as a bean does not
+ * replace Spring Boot's default application task executor.
+ */
+public final class InstrumentedExecutor {
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong runNanos = new AtomicLong();
+
+    public InstrumentedExecutor(String name, int maxConcurrency, boolean preferVirtual) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency);
+        this.delegate = VirtualThreads.newThreadPerTaskExecutor(name, preferVirtual);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Run {@code task} once a slot is free. Cancelling the returned future with
+     * {@code mayInterruptIfRunning} interrupts the task (or its wait for a slot), so a caller that
+     * gives up at a deadline does not leave the task holding a slot.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        submitted.incrementAndGet();
+        long queuedAt = System.nanoTime();
+        Task<T> future = new Task<>();
+        delegate.execute(() -> future.run(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failed.incrementAndGet();
+                throw new CompletionException(ex);
+            }
+            long startedAt = System.nanoTime();
+            waitNanos.addAndGet(startedAt - queuedAt);
+            peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                T result = task.get();
+                completed.incrementAndGet();
+                return result;
+            } catch (RuntimeException ex) {
+                failed.incrementAndGet();
+                throw ex;
+            } finally {
+                active.decrementAndGet();
+                runNanos.addAndGet(System.nanoTime() - startedAt);
+                permits.release();
+            }
+        }));
+        return future;
+    }
+
+    public Map<String, Object> stats() {
+        long finished = completed.get() + failed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("active", active.get());
+        stats.put("peakActive", peakActive.get());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("avgWaitMs", finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.get() / finished));
+        stats.put("avgRunMs", finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(runNanos.get() / finished));
+        return stats;
+    }
+
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+
+    /**
+     * A future that remembers the thread running it, so cancellation can interrupt it.
+     * Threads are per task, so a late interrupt never reaches an unrelated task.
+     */
+    private static final class Task<T> extends CompletableFuture<T> {
+
+        private volatile Thread runner;
+
+        void run(Supplier<T> body) {
+            // Published before the check: a cancel() that completes after the check then sees the
+            // runner and interrupts it, and one that completes before it is seen by the check
+            runner = Thread.currentThread();
+            if (isDone()) {
+                // Cancelled before it started
+                runner = null;
+                return;
+            }
+            try {
+                complete(body.get());
+            } catch (Throwable ex) {
+                completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } finally {
+                runner = null;
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Thread thread = runner;
+            if (cancelled && mayInterruptIfRunning && thread != null) {
+                thread.interrupt();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.blog.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential binary snapshot files of primitive arrays, in little-endian order.
+ * The writer streams through a direct buffer into a temporary file that replaces the target
+ * atomically on {@link Writer#commit()}; the reader memory-maps the file in windows so files
+ * larger than 2 GB can be loaded with bulk copies.
+ */
+public final class MappedSnapshot {
+
+    private static final int WRITE_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final long READ_WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private MappedSnapshot() {
+    }
+
+    public static Writer create(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    public static Reader open(Path source) throws IOException {
+        return new Reader(source);
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private boolean committed;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        public void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        public void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            putBytes(bytes, 0, bytes.length);
+        }
+
+        public void putBytes(byte[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(1);
+                int n = Math.min(length, buffer.remaining());
+                buffer.put(values, offset, n);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void putInts(int[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Integer.BYTES);
+                int n = Math.min(length, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void putLongs(long[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Long.BYTES);
+                int n = Math.min(length, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void putFloats(float[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Float.BYTES);
+                int n = Math.min(length, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, n);
+                buffer.position(buffer.position() + n * Float.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        /**
+         * Flush, sync and move the finished file over the target.
+         */
+        public void commit() throws IOException {
+            flush();
+            channel.force(true);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        private Reader(Path source) throws IOException {
+            this.channel = FileChannel.open(source, StandardOpenOption.READ);
+            this.size = channel.size();
+            map(0);
+        }
+
+        public int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        public long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        public String getString() throws IOException {
+            byte[] bytes = new byte[getInt()];
+            getBytes(bytes, 0, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public void getBytes(byte[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(1);
+                int n = Math.min(length, window.remaining());
+                window.get(values, offset, n);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void getInts(int[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Integer.BYTES);
+                int n = Math.min(length, window.remaining() / Integer.BYTES);
+                window.asIntBuffer().get(values, offset, n);
+                window.position(window.position() + n * Integer.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void getLongs(long[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Long.BYTES);
+                int n = Math.min(length, window.remaining() / Long.BYTES);
+                window.asLongBuffer().get(values, offset, n);
+                window.position(window.position() + n * Long.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        public void getFloats(float[] values, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensure(Float.BYTES);
+                int n = Math.min(length, window.remaining() / Float.BYTES);
+                window.asFloatBuffer().get(values, offset, n);
+                window.position(window.position() + n * Float.BYTES);
+                offset += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + window.position();
+            if (position + bytes > size) {
+                throw new IOException("Snapshot is truncated");
+            }
+            map(position);
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(READ_WINDOW_BYTES, size - position));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
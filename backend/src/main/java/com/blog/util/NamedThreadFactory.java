@@ -0,0 +1,25 @@
+package com.blog.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory producing daemon threads named "{prefix}-{n}".
+ */
+public final class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger index = new AtomicInteger(1);
+
+    public NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setName(prefix + "-" + index.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,79 @@
+package com.blog.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional shared second tier behind an in-process cache. Values are raw bytes with a TTL.
+ * Redis errors are logged and treated as misses so the cache never fails a request.
+ */
+public final class RedisCacheTier {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheTier.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public RedisCacheTier(RedisConnectionFactory connectionFactory, String keyPrefix, Duration ttl) {
+        this.connectionFactory = connectionFactory;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+    }
+
+    public byte[] get(String key) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            byte[] value = connection.stringCommands().get(rawKey(key));
+            (value != null ? hits : misses).incrementAndGet();
+            return value;
+        } catch (Exception ex) {
+            errors.incrementAndGet();
+            log.debug("Redis get {} failed: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.stringCommands().set(rawKey(key), value,
+                    Expiration.from(ttl), RedisStringCommands.SetOption.upsert());
+        } catch (Exception ex) {
+            errors.incrementAndGet();
+            log.debug("Redis put {} failed: {}", key, ex.getMessage());
+        }
+    }
+
+    public void delete(String key) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(rawKey(key));
+        } catch (Exception ex) {
+            errors.incrementAndGet();
+            log.debug("Redis delete {} failed: {}", key, ex.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+
+    private byte[] rawKey(String key) {
+        return (keyPrefix + key).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,203 @@
+package com.blog.util;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate cache. An entry is fresh for {@code freshFor}; after that and until
+ * {@code freshFor + staleFor} it is still returned immediately while a single background reload
+ * replaces it. Concurrent misses for the same key share one load. Loads that fail or produce null
+ * are not cached, and a failed background reload keeps the stale entry.
+ * <p>
+ * With a {@link RedisCacheTier} the entries (including their write time, so staleness is judged the
+ * same way everywhere) are shared across replicas: a local miss reads Redis before loading.
+ * <p>
+ * Caffeine computes a missing entry inside the map's bin lock, so the Redis read and any blocking
+ * load run on the cache's own thread-per-task executor; under the lock only the future is created.
+ */
+public final class SwrCache<V> implements CacheStatsProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(SwrCache.class);
+
+    private final String name;
+    private final long freshForMillis;
+    private final AsyncCache<String, Entry<V>> local;
+    private final RedisCacheTier redis;
+    private final Function<V, byte[]> encoder;
+    private final Function<byte[], V> decoder;
+    private final InstrumentedExecutor refreshExecutor;
+    private final ExecutorService loadExecutor;
+    /** Keys with a background reload in flight. */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    public SwrCache(String name, long maxSize, Duration freshFor, Duration staleFor,
+                    InstrumentedExecutor refreshExecutor, RedisCacheTier redis,
+                    Function<V, byte[]> encoder, Function<byte[], V> decoder) {
+        this.name = name;
+        this.freshForMillis = freshFor.toMillis();
+        this.loadExecutor = VirtualThreads.newThreadPerTaskExecutor(name + "-cache", true);
+        this.local = Caffeine.newBuilder()
+                .executor(loadExecutor)
+                .maximumSize(Math.max(0, maxSize))
+                .expireAfterWrite(freshFor.plus(staleFor))
+                .recordStats()
+                .buildAsync();
+        this.redis = redis;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Value for {@code key}, waiting for a blocking load on a miss. A stale value is reloaded on the
+     * refresh executor. A null result from the loader means "do not cache".
+     */
+    public V get(String key, Supplier<V> loader) {
+        return getAsync(key, () -> CompletableFuture.supplyAsync(loader, loadExecutor),
+                () -> refreshExecutor.supply(loader)).join();
+    }
+
+    /**
+     * Asynchronous variant; {@code loader} must not block the caller.
+     */
+    public CompletableFuture<V> getAsync(String key, Supplier<CompletableFuture<V>> loader) {
+        return getAsync(key, loader, loader);
+    }
+
+    private CompletableFuture<V> getAsync(String key, Supplier<CompletableFuture<V>> loader,
+                                          Supplier<CompletableFuture<V>> reloader) {
+        CompletableFuture<Entry<V>> entry = local.get(key, (k, executor) ->
+                CompletableFuture.supplyAsync(() -> readShared(k), executor)
+                        .thenCompose(shared -> shared != null
+                                ? CompletableFuture.completedFuture(shared)
+                                : load(k, loader)));
+        return entry.thenApply(e -> {
+            if (e == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - e.writtenAt() > freshForMillis) {
+                staleHits.incrementAndGet();
+                refresh(key, reloader);
+            }
+            return e.value();
+        });
+    }
+
+    private CompletableFuture<Entry<V>> load(String key, Supplier<CompletableFuture<V>> loader) {
+        return loadEntry(loader).thenApply(entry -> {
+            if (entry != null) {
+                writeShared(key, entry);
+            }
+            return entry;
+        });
+    }
+
+    private CompletableFuture<Entry<V>> loadEntry(Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return value.thenApply(v -> v == null ? null : new Entry<>(v, System.currentTimeMillis()));
+    }
+
+    private void refresh(String key, Supplier<CompletableFuture<V>> reloader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        loadEntry(reloader).whenComplete((entry, error) -> {
+            try {
+                if (entry == null) {
+                    refreshFailures.incrementAndGet();
+                    if (error != null) {
+                        log.debug("{} cache refresh of {} failed: {}", name, key, error.getMessage());
+                    }
+                    return;
+                }
+                local.put(key, CompletableFuture.completedFuture(entry));
+                writeShared(key, entry);
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private Entry<V> readShared(String key) {
+        if (redis == null) {
+            return null;
+        }
+        byte[] bytes = redis.get(key);
+        if (bytes == null || bytes.length < Long.BYTES) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long writtenAt = buffer.getLong();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            return new Entry<>(decoder.apply(payload), writtenAt);
+        } catch (RuntimeException ex) {
+            log.debug("{} cache could not decode shared entry {}: {}", name, key, ex.getMessage());
+            return null;
+        }
+    }
+
+    private void writeShared(String key, Entry<V> entry) {
+        if (redis == null) {
+            return;
+        }
+        byte[] payload = encoder.apply(entry.value());
+        redis.put(key, ByteBuffer.allocate(Long.BYTES + payload.length)
+                .putLong(entry.writtenAt())
+                .put(payload)
+                .array());
+    }
+
+    /** Called by Spring when the cache bean is destroyed. */
+    public void close() {
+        loadExecutor.shutdownNow();
+    }
+
+    @Override
+    public String cacheName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> cacheStats() {
+        CacheStats stats = local.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", local.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("staleHits", staleHits.get());
+        result.put("refreshFailures", refreshFailures.get());
+        result.put("evictions", stats.evictionCount());
+        if (redis != null) {
+            result.put("redis", redis.stats());
+        }
+        return result;
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+}
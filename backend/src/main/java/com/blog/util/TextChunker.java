@@ -1,26 +0,0 @@
-package com.blog.util;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public final class TextChunker {
-
-    private TextChunker() {
-    }
-
-    public static List<String> split(String text, int chunkSize) {
-        List<String> chunks = new ArrayList<>();
-        if (text == null || text.isBlank()) {
-            return chunks;
-        }
-        int length = text.length();
-        for (int start = 0; start < length; start += chunkSize) {
-            int end = Math.min(length, start + chunkSize);
-            String chunk = text.substring(start, end).trim();
-            if (!chunk.isEmpty()) {
-                chunks.add(chunk);
-            }
-        }
-        return chunks;
-    }
-}
\ No newline at end of file
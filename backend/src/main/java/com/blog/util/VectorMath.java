@@ -0,0 +1,202 @@
+package com.blog.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dot product, cosine similarity and squared L2 distance over {@code float[]} embeddings, plus
+ * top-k scoring of a query against a row-major matrix.
+ * <p>
+ * When the JVM is started with {@code --add-modules jdk.incubator.vector} the kernels use the
+ * Vector API (SIMD lanes with fused multiply-add); otherwise, or with
+ * {@code -Dvectormath.scalar=true}, they fall back to scalar loops. Results of the two may differ
+ * in the last bits because the summation order differs.
+ */
+public final class VectorMath {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorMath.class);
+
+    private static final Kernel KERNEL = selectKernel();
+
+    private VectorMath() {
+    }
+
+    /** Whether the Vector API kernel is in use. */
+    public static boolean simdEnabled() {
+        return !(KERNEL instanceof ScalarKernel);
+    }
+
+    public static float dot(float[] a, float[] b) {
+        checkLengths(a, b);
+        return KERNEL.dot(a, 0, b, 0, a.length);
+    }
+
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Cosine similarity; 0 when either vector is all zeros.
+     */
+    public static float cosine(float[] a, float[] b) {
+        checkLengths(a, b);
+        float normA = KERNEL.dot(a, 0, a, 0, a.length);
+        float normB = KERNEL.dot(b, 0, b, 0, b.length);
+        if (normA == 0 || normB == 0) {
+            return 0f;
+        }
+        return (float) (KERNEL.dot(a, 0, b, 0, a.length) / Math.sqrt((double) normA * normB));
+    }
+
+    public static float l2Squared(float[] a, float[] b) {
+        checkLengths(a, b);
+        return KERNEL.l2Squared(a, 0, b, 0, a.length);
+    }
+
+    public static float l2Squared(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.l2Squared(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Scale {@code values[offset, offset + length)} to unit length in place; zero vectors are left as is.
+     */
+    public static void normalize(float[] values, int offset, int length) {
+        float norm = KERNEL.dot(values, offset, values, offset, length);
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = offset; i < offset + length; i++) {
+            values[i] *= scale;
+        }
+    }
+
+    /**
+     * The {@code k} rows of {@code matrix} (row-major, {@code rows} x {@code query.length}) with the
+     * highest dot product with {@code query}, best first. For cosine similarity pass unit vectors.
+     */
+    public static TopK topK(float[] query, float[] matrix, int rows, int k) {
+        int dimension = query.length;
+        if ((long) rows * dimension > matrix.length) {
+            throw new IllegalArgumentException("matrix holds fewer than " + rows + " rows of " + dimension);
+        }
+        int size = Math.min(k, rows);
+        // Min-heap on score: the root is the weakest of the best rows seen so far
+        int[] heapRows = new int[size];
+        float[] heapScores = new float[size];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            float score = KERNEL.dot(query, 0, matrix, row * dimension, dimension);
+            if (count < size) {
+                siftUp(heapRows, heapScores, count++, row, score);
+            } else if (size > 0 && score > heapScores[0]) {
+                siftDown(heapRows, heapScores, size, row, score);
+            }
+        }
+        int[] indices = new int[count];
+        float[] scores = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            indices[i] = heapRows[0];
+            scores[i] = heapScores[0];
+            int lastRow = heapRows[i];
+            float lastScore = heapScores[i];
+            if (i > 0) {
+                siftDown(heapRows, heapScores, i, lastRow, lastScore);
+            }
+        }
+        return new TopK(indices, scores);
+    }
+
+    private static void siftUp(int[] rows, float[] scores, int index, int row, float score) {
+        int i = index;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            rows[i] = rows[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        rows[i] = row;
+        scores[i] = score;
+    }
+
+    /** Replace the root of a heap of {@code size} entries and restore the heap order. */
+    private static void siftDown(int[] rows, float[] scores, int size, int row, float score) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[child] >= score) {
+                break;
+            }
+            rows[i] = rows[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        rows[i] = row;
+        scores[i] = score;
+    }
+
+    private static void checkLengths(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("vector lengths differ: " + a.length + " vs " + b.length);
+        }
+    }
+
+    private static Kernel selectKernel() {
+        if (Boolean.getBoolean("vectormath.scalar")
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarKernel();
+        }
+        try {
+            Kernel kernel = new SimdKernel();
+            log.info("VectorMath using the Vector API with {}-float lanes", SimdKernel.lanes());
+            return kernel;
+        } catch (LinkageError e) {
+            log.warn("Vector API unavailable, VectorMath falls back to scalar loops: {}", e.getMessage());
+            return new ScalarKernel();
+        }
+    }
+
+    /**
+     * Rows of a {@link #topK} result and their scores, best first.
+     */
+    public record TopK(int[] indices, float[] scores) {
+    }
+
+    interface Kernel {
+
+        float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+        float l2Squared(float[] a, int aOffset, float[] b, int bOffset, int length);
+    }
+
+    static final class ScalarKernel implements Kernel {
+
+        @Override
+        public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+            float sum = 0f;
+            for (int i = 0; i < length; i++) {
+                sum += a[aOffset + i] * b[bOffset + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public float l2Squared(float[] a, int aOffset, float[] b, int bOffset, int length) {
+            float sum = 0f;
+            for (int i = 0; i < length; i++) {
+                float d = a[aOffset + i] - b[bOffset + i];
+                sum += d * d;
+            }
+            return sum;
+        }
+    }
+}
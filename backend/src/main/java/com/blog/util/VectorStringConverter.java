@@ -1,51 +0,0 @@
-package com.blog.util;
-
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Converter;
-
-/**
- * Converter between float[] and PostgreSQL vector text format.
- * The format is "[0.1,0.2,...]" which PostgreSQL can cast to vector type.
- */
-@Converter
-public class VectorStringConverter implements AttributeConverter<float[], String> {
-
-    @Override
-    public String convertToDatabaseColumn(float[] attribute) {
-        if (attribute == null || attribute.length == 0) {
-            return null;
-        }
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < attribute.length; i++) {
-            if (i > 0) {
-                sb.append(',');
-            }
-            sb.append(attribute[i]);
-        }
-        sb.append(']');
-        return sb.toString();
-    }
-
-    @Override
-    public float[] convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.isBlank() || "[]".equals(dbData.trim())) {
-            return new float[0];
-        }
-        String trimmed = dbData.trim();
-        if (trimmed.startsWith("[")) {
-            trimmed = trimmed.substring(1);
-        }
-        if (trimmed.endsWith("]")) {
-            trimmed = trimmed.substring(0, trimmed.length() - 1);
-        }
-        if (trimmed.isBlank()) {
-            return new float[0];
-        }
-        String[] parts = trimmed.split(",");
-        float[] values = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            values[i] = Float.parseFloat(parts[i].trim());
-        }
-        return values;
-    }
-}
\ No newline at end of file
@@ -1,22 +1,63 @@
 package com.blog.util;
 
+import com.pgvector.PGvector;
+import org.postgresql.util.PGobject;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.SQLException;
+
+/**
+ * Conversions between float[] embeddings and pgvector JDBC values.
+ * Vectors are bound as {@link PGvector}, which the driver sends in binary form once the
+ * vector type is registered on the connection (see PgvectorConfig).
+ */
 public final class VectorUtil {
 
     private VectorUtil() {
     }
 
-    public static String toVectorString(float[] values) {
+    /**
+     * Wrap an embedding as a JDBC parameter; empty embeddings map to SQL NULL.
+     */
+    public static PGvector toPGvector(float[] values) {
         if (values == null || values.length == 0) {
-            return "[]";
+            return null;
+        }
+        return new PGvector(values);
+    }
+
+    /**
+     * Read a vector column value, accepting both binary ({@link PGvector}) and text results.
+     */
+    public static float[] toArray(Object value) throws SQLException {
+        if (value == null) {
+            return null;
         }
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < values.length; i++) {
-            if (i > 0) {
-                sb.append(',');
-            }
-            sb.append(values[i]);
+        if (value instanceof PGvector vector) {
+            return vector.toArray();
         }
-        sb.append(']');
-        return sb.toString();
+        if (value instanceof PGobject object) {
+            return object.getValue() == null ? null : new PGvector(object.getValue()).toArray();
+        }
+        return new PGvector(value.toString()).toArray();
+    }
+
+    /**
+     * Pack an embedding as little-endian float32 bytes, e.g. for a Redis cache value.
+     */
+    public static byte[] toBytes(float[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(values);
+        return buffer.array();
+    }
+
+    /**
+     * Inverse of {@link #toBytes(float[])}.
+     */
+    public static float[] fromBytes(byte[] bytes) {
+        float[] values = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values);
+        return values;
     }
-}
\ No newline at end of file
+}
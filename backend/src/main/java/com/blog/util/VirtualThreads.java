@@ -0,0 +1,54 @@
+package com.blog.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread-per-task executors backed by virtual threads when the runtime supports them (Java 21+).
+ * The project still compiles for Java 17, so virtual threads are reached through reflection;
+ * on older runtimes a cached pool of daemon platform threads is used instead. Either way the
+ * executor is unbounded and callers are expected to limit concurrency themselves.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return virtualThreadFactory("probe") != null;
+    }
+
+    /**
+     * Executor starting one thread per task, named "{prefix}-{n}".
+     *
+     * @param preferVirtual use virtual threads when supported
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix, boolean preferVirtual) {
+        ThreadFactory factory = preferVirtual ? virtualThreadFactory(prefix) : null;
+        if (factory == null) {
+            return Executors.newCachedThreadPool(new NamedThreadFactory(prefix));
+        }
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(new NamedThreadFactory(prefix));
+        }
+    }
+
+    /**
+     * {@code Thread.ofVirtual().name(prefix + "-", 1).factory()}, or null before Java 21.
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix + "-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+}
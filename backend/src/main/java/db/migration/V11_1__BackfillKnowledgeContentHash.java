@@ -0,0 +1,53 @@
+package db.migration;
+
+import com.blog.repository.KnowledgeChunkWriter;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills in content_hash for chunks stored before V11, using the same
+ * {@link KnowledgeChunkWriter#contentHash} as ingest (Java's NFKC and whitespace rules differ from
+ * PostgreSQL's, so the hashes cannot be computed in SQL). Rows are read in id-ordered pages.
+ */
+public class V11_1__BackfillKnowledgeContentHash extends BaseJavaMigration {
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (PreparedStatement select = connection.prepareStatement("""
+                SELECT id, chunk_content FROM knowledge_base
+                WHERE content_hash IS NULL AND id > ?
+                ORDER BY id
+                LIMIT ?
+                """);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE knowledge_base SET content_hash = ? WHERE id = ?")) {
+            long lastId = 0;
+            while (true) {
+                select.setLong(1, lastId);
+                select.setInt(2, PAGE_SIZE);
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong("id");
+                        update.setString(1, KnowledgeChunkWriter.contentHash(rs.getString("chunk_content")));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                if (rows == 0) {
+                    return;
+                }
+                update.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- 支持按创建时间窗口过滤的向量检索（与 idx_knowledge_parent / idx_knowledge_source 配合使用）
+CREATE INDEX IF NOT EXISTS idx_knowledge_created_at ON knowledge_base(created_at);
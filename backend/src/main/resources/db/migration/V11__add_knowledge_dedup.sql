@@ -0,0 +1,16 @@
+-- 入库去重：分块文本规范化后的 SHA-256（与 CacheKeys.normalize 一致：NFKC、去首尾空白、合并空白）
+ALTER TABLE knowledge_base ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+-- 链接模式下重复分块指向的原始分块；重复分块不存向量，不参与检索
+ALTER TABLE knowledge_base ADD COLUMN IF NOT EXISTS duplicate_of BIGINT REFERENCES knowledge_base(id) ON DELETE SET NULL;
+
+-- 已有分块的哈希由 Java 迁移 V11_1 回填，与入库时的计算方式完全一致
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_content_hash ON knowledge_base(content_hash) WHERE duplicate_of IS NULL;
+
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS duplicate_chunks INTEGER DEFAULT 0;
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS near_duplicate_chunks INTEGER DEFAULT 0;
+
+COMMENT ON COLUMN knowledge_base.content_hash IS '规范化分块文本的 SHA-256（十六进制）';
+COMMENT ON COLUMN knowledge_base.duplicate_of IS '重复分块所对应的原始分块 ID';
+COMMENT ON COLUMN import_records.duplicate_chunks IS '文本完全相同而被跳过或链接的分块数';
+COMMENT ON COLUMN import_records.near_duplicate_chunks IS '向量近似重复而被跳过或链接的分块数';
@@ -0,0 +1,13 @@
+-- 按内容寻址的向量存储：相同文本（规范化后 SHA-256）在同一嵌入模型下只调用一次远程嵌入接口
+-- embedding 不限定维度，切换到不同维度的模型时无需迁移
+CREATE TABLE IF NOT EXISTS embedding_store (
+    content_hash VARCHAR(64) NOT NULL,
+    model VARCHAR(200) NOT NULL,
+    embedding vector NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (content_hash, model)
+);
+
+COMMENT ON TABLE embedding_store IS '文本嵌入持久化缓存，键为规范化文本的 SHA-256 与嵌入模型';
+COMMENT ON COLUMN embedding_store.content_hash IS '规范化文本的 SHA-256（与 knowledge_base.content_hash 一致）';
+COMMENT ON COLUMN embedding_store.model IS '嵌入模型 ID（OPENAI_EMBEDDING_MODEL）';
@@ -0,0 +1,9 @@
+-- 导入任务归属：处理该任务的后端实例及其最近一次心跳，用于只回收已失联实例遗留的任务
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS worker_id VARCHAR(64);
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS heartbeat_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_import_records_unfinished ON import_records(heartbeat_at)
+    WHERE status IN ('queued', 'processing');
+
+COMMENT ON COLUMN import_records.worker_id IS '排队或处理该导入的后端实例 ID';
+COMMENT ON COLUMN import_records.heartbeat_at IS '所属实例最近一次心跳时间，超时视为实例已停止';
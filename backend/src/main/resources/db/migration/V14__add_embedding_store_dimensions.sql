@@ -0,0 +1,8 @@
+-- 嵌入维度纳入存储键：同一模型改用不同输出维度（OPENAI_EMBEDDING_DIMENSIONS）时不再命中旧维度的向量
+-- 已有记录均在未配置维度时写入，记为 0（模型原生维度）
+ALTER TABLE embedding_store ADD COLUMN IF NOT EXISTS dimensions INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE embedding_store DROP CONSTRAINT IF EXISTS embedding_store_pkey;
+ALTER TABLE embedding_store ADD PRIMARY KEY (content_hash, model, dimensions);
+
+COMMENT ON COLUMN embedding_store.dimensions IS '请求的嵌入输出维度（OPENAI_EMBEDDING_DIMENSIONS），0 表示模型原生维度';
@@ -0,0 +1,7 @@
+-- 为导入记录添加进度字段（异步导入任务轮询使用）
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS chunks_processed INTEGER DEFAULT 0;
+ALTER TABLE import_records ADD COLUMN IF NOT EXISTS progress INTEGER DEFAULT 0;
+
+COMMENT ON COLUMN import_records.status IS '状态：queued-排队中, processing-处理中, completed-已完成, failed-失败';
+COMMENT ON COLUMN import_records.chunks_processed IS '已写入知识库的分块数';
+COMMENT ON COLUMN import_records.progress IS '导入进度（0-100）';
@@ -0,0 +1,50 @@
+-- 将文档正文从 knowledge_base 的每个分块行中拆出，单独存放一次
+
+CREATE TABLE IF NOT EXISTS knowledge_documents (
+    id BIGSERIAL PRIMARY KEY,
+    parent_id BIGINT REFERENCES import_records(id) ON DELETE SET NULL,
+    title VARCHAR(500) NOT NULL,
+    content TEXT NOT NULL DEFAULT '',
+    source_type VARCHAR(50),
+    source_url VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    legacy_key TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_documents_parent ON knowledge_documents(parent_id);
+
+ALTER TABLE knowledge_base ADD COLUMN IF NOT EXISTS document_id BIGINT
+    REFERENCES knowledge_documents(id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_document ON knowledge_base(document_id, chunk_index);
+
+-- 去重迁移：同一导入记录/标题/来源下正文相同的分块行只保留一份文档正文
+INSERT INTO knowledge_documents (parent_id, title, content, source_type, source_url, created_at, updated_at, legacy_key)
+SELECT DISTINCT ON (legacy_key)
+       parent_id, title, content, source_type, source_url, created_at, updated_at, legacy_key
+FROM (
+    SELECT kb.*,
+           concat_ws('|', coalesce(kb.parent_id::text, ''), kb.title, coalesce(kb.source_type, ''),
+                     coalesce(kb.source_url, ''), md5(kb.content)) AS legacy_key
+    FROM knowledge_base kb
+) rows
+ORDER BY legacy_key, created_at;
+
+CREATE INDEX idx_knowledge_documents_legacy_key ON knowledge_documents(legacy_key);
+
+UPDATE knowledge_base kb
+SET document_id = d.id
+FROM knowledge_documents d
+WHERE d.legacy_key = concat_ws('|', coalesce(kb.parent_id::text, ''), kb.title, coalesce(kb.source_type, ''),
+                               coalesce(kb.source_url, ''), md5(kb.content));
+
+DROP INDEX idx_knowledge_documents_legacy_key;
+ALTER TABLE knowledge_documents DROP COLUMN legacy_key;
+
+-- 删除重复的正文列；旧数据占用的空间需在迁移后执行 VACUUM FULL knowledge_base 才会归还
+ALTER TABLE knowledge_base DROP COLUMN content;
+
+COMMENT ON TABLE knowledge_documents IS '知识库文档正文，每个文档只存一份';
+COMMENT ON COLUMN knowledge_documents.parent_id IS '关联的导入记录ID（外部添加的知识为空）';
+COMMENT ON COLUMN knowledge_base.document_id IS '分块所属文档ID';
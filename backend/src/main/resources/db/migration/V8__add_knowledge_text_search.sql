@@ -0,0 +1,45 @@
+-- 为混合检索的关键词分支建立全文索引，替代 LIKE '%q%' 全表扫描
+
+-- 中文按二元组（bigram）切词，其余文本原样交给 simple 配置按空白/标点切词。
+-- 例如 "向量数据库 pgvector" => "向量 量数 数据 据库 pgvector"。
+-- 文档与查询使用同一个函数切词，保证两侧词元一致
+CREATE OR REPLACE FUNCTION knowledge_search_terms(input TEXT)
+RETURNS TEXT
+LANGUAGE plpgsql
+IMMUTABLE PARALLEL SAFE
+AS $$
+DECLARE
+    segment TEXT;
+    segment_length INT;
+    terms TEXT[] := '{}';
+BEGIN
+    IF input IS NULL THEN
+        RETURN '';
+    END IF;
+    FOR segment IN
+        SELECT m[1]
+        FROM regexp_matches(input, '[㐀-鿿豈-﫿]+|[^㐀-鿿豈-﫿]+', 'g') AS m
+    LOOP
+        IF segment ~ '^[㐀-鿿豈-﫿]' THEN
+            segment_length := char_length(segment);
+            IF segment_length = 1 THEN
+                terms := terms || segment;
+            ELSE
+                terms := terms || ARRAY(SELECT substr(segment, i, 2) FROM generate_series(1, segment_length - 1) AS i);
+            END IF;
+        ELSE
+            terms := terms || segment;
+        END IF;
+    END LOOP;
+    RETURN array_to_string(terms, ' ');
+END;
+$$;
+
+-- 生成列随 chunk_content 自动维护；已有数据在本迁移中一次性回填
+ALTER TABLE knowledge_base ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (to_tsvector('simple', knowledge_search_terms(chunk_content))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_knowledge_search_vector ON knowledge_base USING GIN (search_vector);
+
+COMMENT ON FUNCTION knowledge_search_terms(TEXT) IS '全文检索切词：中文二元组 + 其他文本原样';
+COMMENT ON COLUMN knowledge_base.search_vector IS '分块内容的全文检索向量（中文二元组切词），用于混合检索关键词分支';
@@ -0,0 +1,12 @@
+-- 支持 HNSW 的库上移除旧的 IVFFlat 索引
+-- HNSW 索引参数（m / ef_construction）不在迁移中重建：重建会在 Flyway 事务内长时间锁表。
+-- 由 VectorIndexManager 在启动后按 app.vector.pgvector.* 参数以 CREATE INDEX CONCURRENTLY 在后台重建
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_am WHERE amname = 'hnsw')
+            AND EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'idx_knowledge_embedding_hnsw') THEN
+        DROP INDEX IF EXISTS idx_knowledge_embedding_ivfflat;
+    END IF;
+END
+$$;
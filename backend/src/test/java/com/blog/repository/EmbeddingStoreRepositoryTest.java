@@ -0,0 +1,55 @@
+package com.blog.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EmbeddingStoreRepositoryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void lookupsAreScopedToTheConfiguredDimensions() {
+        EmbeddingStoreRepository store = new EmbeddingStoreRepository(jdbcTemplate, "qwen", 512, true);
+
+        store.findAll(List.of("some text"));
+
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq("qwen"), eq(512), any());
+    }
+
+    @Test
+    void unsetDimensionsMeanTheModelsNativeSize() {
+        EmbeddingStoreRepository store = new EmbeddingStoreRepository(jdbcTemplate, "bge", null, true);
+
+        store.saveAll(List.of("some text"), List.of(new float[]{0.5f, 0.5f}));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        Object[] row = rows.getValue().get(0);
+        assertEquals("bge", row[1]);
+        assertEquals(0, row[2]);
+    }
+
+    @Test
+    void hitRateIsZeroBeforeAnyLookup() {
+        EmbeddingStoreRepository store = new EmbeddingStoreRepository(jdbcTemplate, "bge", null, true);
+
+        assertEquals(0.0, store.cacheStats().get("hitRate"));
+
+        store.findAll(List.of("some text"));
+        assertEquals(0.0, store.cacheStats().get("hitRate"));
+        assertTrue((long) store.cacheStats().get("misses") > 0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.blog.repository;
+
+import com.blog.util.VectorUtil;
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Time to insert 1k / 10k / 100k chunks one INSERT per row versus through
+ * {@link KnowledgeChunkWriter}'s statement batches. Needs a migrated database; every run is
+ * rolled back. Not part of the regular test run; run it with
+ * {@code mvn test -Dtest=KnowledgeChunkWriterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/blog?reWriteBatchedInserts=true
+ * -Dbenchmark.jdbc-user=postgres -Dbenchmark.jdbc-password=...}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class KnowledgeChunkWriterBenchmark {
+
+    private static final int DIMENSION = 1024;
+
+    private static final String INSERT_ROW_SQL = """
+            INSERT INTO knowledge_base (title, chunk_content, chunk_index, document_id, embedding,
+                                        source_type, content_hash, created_at, updated_at)
+            VALUES (?, ?, ?, NULL, ?, 'benchmark', ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void connect() throws SQLException {
+        dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.jdbc-url"),
+                System.getProperty("benchmark.jdbc-user", "postgres"),
+                System.getProperty("benchmark.jdbc-password", ""), true);
+        PGvector.addVectorType(dataSource.getConnection());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void compareInsertPaths() {
+        KnowledgeChunkWriter writer = new KnowledgeChunkWriter(jdbcTemplate, 500);
+        for (int count : new int[]{1_000, 10_000, 100_000}) {
+            List<KnowledgeChunkWriter.Chunk> chunks = chunks(count);
+            long perRow = timeRolledBack(() -> {
+                for (KnowledgeChunkWriter.Chunk chunk : chunks) {
+                    jdbcTemplate.update(INSERT_ROW_SQL, ps -> {
+                        ps.setString(1, chunk.title());
+                        ps.setString(2, chunk.chunkContent());
+                        ps.setInt(3, chunk.chunkIndex());
+                        ps.setObject(4, VectorUtil.toPGvector(chunk.embedding()), Types.OTHER);
+                        ps.setString(5, KnowledgeChunkWriter.contentHash(chunk.chunkContent()));
+                    });
+                }
+            });
+            long batched = timeRolledBack(() -> writer.writeAll(chunks));
+            System.out.printf("%6d chunks: per-row %7d ms, batched %7d ms (%.1fx)%n",
+                    count, perRow, batched, (double) perRow / Math.max(1, batched));
+        }
+    }
+
+    private static long timeRolledBack(Runnable work) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            work.run();
+            status.setRollbackOnly();
+        });
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static List<KnowledgeChunkWriter.Chunk> chunks(int count) {
+        Random random = new Random(count);
+        List<KnowledgeChunkWriter.Chunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] embedding = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                embedding[d] = random.nextFloat() * 2 - 1;
+            }
+            chunks.add(new KnowledgeChunkWriter.Chunk("benchmark", "benchmark chunk " + i + " " + random.nextLong(),
+                    i, null, null, embedding, null, "benchmark", null, null));
+        }
+        return chunks;
+    }
+}
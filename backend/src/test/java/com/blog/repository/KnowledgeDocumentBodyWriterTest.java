@@ -0,0 +1,71 @@
+package com.blog.repository;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class KnowledgeDocumentBodyWriterTest {
+
+    private static final int PIECE_CHARS = 1000;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final KnowledgeDocumentBodyWriter writer = new KnowledgeDocumentBodyWriter(jdbcTemplate, PIECE_CHARS);
+
+    @Test
+    void bodyIsSentInBoundedPieces() throws IOException {
+        String body = "第一章 向量检索。Chunked body text. ".repeat(400);
+
+        writer.write(7L, new StringReader(body));
+
+        List<String> statements = capture(body.length() / PIECE_CHARS + 1);
+        StringBuilder written = new StringBuilder();
+        for (int i = 0; i < statements.size(); i += 2) {
+            String sql = statements.get(i);
+            String piece = statements.get(i + 1);
+            // The whole body is never bound as one value
+            assertTrue(piece.length() <= PIECE_CHARS, "piece of " + piece.length() + " chars");
+            assertTrue(i == 0 ? sql.contains("SET content = ?") : sql.contains("content || ?"), sql);
+            written.append(piece);
+        }
+        assertEquals(body, written.toString());
+    }
+
+    @Test
+    void bodyOfExactlyOnePieceIsOneStatement() throws IOException {
+        writer.write(7L, new StringReader("x".repeat(PIECE_CHARS)));
+        assertEquals(1, capture(1).size() / 2);
+    }
+
+    @Test
+    void emptyBodyClearsTheContent() throws IOException {
+        writer.write(7L, new StringReader(""));
+        List<String> statements = capture(1);
+        assertTrue(statements.get(0).contains("SET content = ?"));
+        assertEquals("", statements.get(1));
+    }
+
+    /** SQL and bound text of each expected update, flattened. */
+    private List<String> capture(int updates) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> piece = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(updates)).update(sql.capture(), piece.capture(), eq(7L));
+        List<String> flattened = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            flattened.add(sql.getAllValues().get(i));
+            flattened.add((String) piece.getAllValues().get(i));
+        }
+        return flattened;
+    }
+}
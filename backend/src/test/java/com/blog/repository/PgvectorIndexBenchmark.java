@@ -0,0 +1,179 @@
+package com.blog.repository;
+
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Recall@10, latency and index size of pgvector HNSW search at several hnsw.ef_search values, for
+ * the full-precision, halfvec and binary storage modes (see VectorIndexManager.StorageMode), against
+ * exact results computed before any index exists. Runs on a scratch table of clustered synthetic vectors that is
+ * dropped afterwards. Not part of the regular test run; run it with
+ * {@code mvn test -Dtest=PgvectorIndexBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/blog -Dbenchmark.jdbc-user=postgres
+ * -Dbenchmark.jdbc-password=... -Dbenchmark.vectors=100000} (or 1000000). The index is built with
+ * {@code -Dbenchmark.m} / {@code -Dbenchmark.ef-construction}, defaulting to 16 / 64; the modes
+ * measured and the quantized re-rank factor are set with {@code -Dbenchmark.modes=full,half,binary}
+ * and {@code -Dbenchmark.rerank-factor=4}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class PgvectorIndexBenchmark {
+
+    private static final String TABLE = "benchmark_vectors";
+    private static final int DIMENSION = 1024;
+    private static final int CLUSTERS = 200;
+    private static final int QUERIES = 100;
+    private static final int K = 10;
+    private static final int[] EF_SEARCH = {10, 20, 40, 80, 160, 320};
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void connect() throws SQLException {
+        dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.jdbc-url"),
+                System.getProperty("benchmark.jdbc-user", "postgres"),
+                System.getProperty("benchmark.jdbc-password", ""), true);
+        PGvector.addVectorType(dataSource.getConnection());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        dataSource.destroy();
+    }
+
+    @Test
+    void recallVersusLatency() {
+        int vectors = Integer.getInteger("benchmark.vectors", 100_000);
+        int m = Integer.getInteger("benchmark.m", 16);
+        int efConstruction = Integer.getInteger("benchmark.ef-construction", 64);
+        int rerankFactor = Integer.getInteger("benchmark.rerank-factor", 4);
+        Random random = new Random(1);
+        float[][] centers = new float[CLUSTERS][];
+        Arrays.setAll(centers, i -> gaussian(random, 1.0f));
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (id BIGINT PRIMARY KEY, embedding vector(" + DIMENSION + "))");
+        load(vectors, centers, random);
+
+        List<float[]> queries = new ArrayList<>(QUERIES);
+        List<Set<Long>> exact = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = perturb(centers[random.nextInt(CLUSTERS)], random);
+            queries.add(query);
+            exact.add(new HashSet<>(nearest(Mode.FULL, query, K)));
+        }
+
+        for (String name : System.getProperty("benchmark.modes", "full,half,binary").split(",")) {
+            Mode mode = Mode.valueOf(name.trim().toUpperCase());
+            String index = TABLE + "_" + mode.name().toLowerCase();
+            long start = System.nanoTime();
+            jdbcTemplate.execute(String.format("CREATE INDEX %s ON %s USING hnsw (%s) WITH (m = %d, ef_construction = %d)",
+                    index, TABLE, mode.indexExpression, m, efConstruction));
+            System.out.printf("%s: %d vectors, m = %d, ef_construction = %d: index built in %d s, %d MB%n",
+                    mode, vectors, m, efConstruction, (System.nanoTime() - start) / 1_000_000_000,
+                    indexMegabytes(index));
+
+            int candidates = mode == Mode.FULL ? K : K * rerankFactor;
+            for (int ef : EF_SEARCH) {
+                // As in the application, ef_search is raised to the number of index candidates
+                jdbcTemplate.execute("SET hnsw.ef_search = " + Math.max(ef, candidates));
+                long[] latencies = new long[QUERIES];
+                double recall = 0;
+                for (int q = 0; q < QUERIES; q++) {
+                    long queryStart = System.nanoTime();
+                    List<Long> found = nearest(mode, queries.get(q), candidates);
+                    latencies[q] = System.nanoTime() - queryStart;
+                    recall += found.stream().filter(exact.get(q)::contains).count() / (double) K;
+                }
+                Arrays.sort(latencies);
+                System.out.printf("  ef_search %3d: recall@%d %.3f, p50 %.2f ms, p95 %.2f ms%n", ef, K,
+                        recall / QUERIES, latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 95 / 100] / 1e6);
+            }
+            jdbcTemplate.execute("RESET hnsw.ef_search");
+            jdbcTemplate.execute("DROP INDEX " + index);
+        }
+    }
+
+    /**
+     * Top {@link #K} ids in the same shape as the application queries: ordered by distance so the
+     * index drives the scan, and in the quantized modes {@code candidates} rows from the index
+     * re-ranked by full-precision distance. Without an index this is the exact answer.
+     */
+    private static List<Long> nearest(Mode mode, float[] query, int candidates) {
+        PGvector vector = new PGvector(query);
+        if (mode == Mode.FULL) {
+            return jdbcTemplate.queryForList("SELECT id FROM " + TABLE + " ORDER BY embedding <=> ? LIMIT " + K,
+                    Long.class, vector);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM (SELECT id, embedding FROM " + TABLE
+                        + " ORDER BY " + mode.orderExpression + " LIMIT ?) candidates"
+                        + " ORDER BY embedding <=> ? LIMIT " + K,
+                Long.class, vector, candidates, vector);
+    }
+
+    private static void load(int vectors, float[][] centers, Random random) {
+        int batch = 1000;
+        for (int from = 0; from < vectors; from += batch) {
+            int to = Math.min(vectors, from + batch);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int id = from; id < to; id++) {
+                rows.add(new Object[]{(long) id, new PGvector(perturb(centers[random.nextInt(CLUSTERS)], random))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + TABLE + " (id, embedding) VALUES (?, ?)", rows,
+                    new int[]{Types.BIGINT, Types.OTHER});
+        }
+        jdbcTemplate.execute("ANALYZE " + TABLE);
+    }
+
+    private static long indexMegabytes(String index) {
+        Long bytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, index);
+        return bytes == null ? 0 : bytes / (1024 * 1024);
+    }
+
+    private enum Mode {
+        FULL("embedding vector_cosine_ops", "embedding <=> ?"),
+        HALF("(embedding::halfvec(1024)) halfvec_cosine_ops", "embedding::halfvec(1024) <=> ?::halfvec(1024)"),
+        BINARY("(binary_quantize(embedding)::bit(1024)) bit_hamming_ops",
+                "binary_quantize(embedding)::bit(1024) <~> binary_quantize(?)");
+
+        private final String indexExpression;
+        private final String orderExpression;
+
+        Mode(String indexExpression, String orderExpression) {
+            this.indexExpression = indexExpression;
+            this.orderExpression = orderExpression;
+        }
+    }
+
+    private static float[] perturb(float[] center, Random random) {
+        float[] noise = gaussian(random, 0.3f);
+        for (int i = 0; i < DIMENSION; i++) {
+            noise[i] += center[i];
+        }
+        return noise;
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] values = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            values[i] = (float) random.nextGaussian() * scale;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.KnowledgeEmbeddingRepository;
+import com.blog.repository.KnowledgeEmbeddingRepository.EmbeddingRow;
+import com.blog.repository.KnowledgeSearchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HnswVectorIndexTest {
+
+    private static final float[] QUERY = {1f, 0f};
+
+    @TempDir
+    Path dir;
+
+    private final List<Long> tableIds = new CopyOnWriteArrayList<>(List.of(1L, 2L, 3L));
+    private HnswVectorIndex index;
+
+    @BeforeEach
+    void setUp() {
+        KnowledgeEmbeddingRepository embeddingRepository = mock(KnowledgeEmbeddingRepository.class);
+        KnowledgeSearchRepository searchRepository = mock(KnowledgeSearchRepository.class);
+        when(embeddingRepository.currentTimestamp()).thenAnswer(invocation -> new Timestamp(System.currentTimeMillis()));
+        when(embeddingRepository.findUpdatedSince(any())).thenReturn(Map.of());
+        when(embeddingRepository.findAllIds()).thenAnswer(invocation -> List.copyOf(tableIds));
+        doAnswer(invocation -> {
+            Consumer<EmbeddingRow> consumer = invocation.getArgument(0);
+            for (Long id : tableIds) {
+                consumer.accept(row(id));
+            }
+            return null;
+        }).when(embeddingRepository).forEach(any());
+        // Hydration finds every id, so only the graph decides what a search returns
+        when(searchRepository.findByIds(anyList())).thenAnswer(invocation -> {
+            List<KnowledgeVO> rows = new ArrayList<>();
+            for (Long id : invocation.<List<Long>>getArgument(0)) {
+                rows.add(new KnowledgeVO(id, "t" + id, "c" + id, null, "manual"));
+            }
+            return rows;
+        });
+        index = new HnswVectorIndex(embeddingRepository, searchRepository, mock(VectorIndex.class),
+                QUERY.length, 8, 32, dir.resolve("index.bin"), 1000, 0, 0);
+        index.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void rowsDeletedElsewhereLeaveTheGraph() throws InterruptedException {
+        awaitHits(List.of(1L, 2L, 3L));
+
+        // Deleted by another instance: no event here and no updated_at to sync
+        tableIds.remove(2L);
+
+        awaitHits(List.of(1L, 3L));
+    }
+
+    private void awaitHits(List<Long> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<Long> ids = List.of();
+        while (System.currentTimeMillis() < deadline) {
+            ids = index.search(QUERY, 0f, 10, 40, KnowledgeFilter.NONE).stream()
+                    .map(KnowledgeVO::getId).sorted().toList();
+            if (ids.equals(expected)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("expected " + expected + " but the index returned " + ids);
+    }
+
+    private static EmbeddingRow row(long id) {
+        Timestamp at = new Timestamp(0);
+        return new EmbeddingRow(id, new float[]{1f, id * 0.1f}, "manual", null, at, at);
+    }
+}
@@ -0,0 +1,119 @@
+package com.blog.service;
+
+import com.blog.model.dto.KnowledgeFilter;
+import com.blog.model.vo.KnowledgeVO;
+import com.blog.repository.KnowledgeSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private static final int RRF_K = 60;
+    private static final float[] EMBEDDING = {1f, 0f};
+
+    private KnowledgeSearchRepository repository;
+    private VectorIndex vectorIndex;
+    private AIService aiService;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(KnowledgeSearchRepository.class);
+        vectorIndex = mock(VectorIndex.class);
+        aiService = mock(AIService.class);
+        when(aiService.generateEmbedding(anyString())).thenReturn(EMBEDDING);
+        searchService = new SearchService(repository, vectorIndex, aiService, 50, RRF_K, 40);
+    }
+
+    @Test
+    void chunksFoundByBothBranchesRankFirst() {
+        givenVectorResults(hit(1, 0.9), hit(2, 0.8), hit(3, 0.7));
+        givenTextResults(hit(4, null), hit(3, null), hit(5, null));
+
+        List<KnowledgeVO> results = searchService.hybridSearch("q", 5, 0.5f, 1f, 1f, null, KnowledgeFilter.NONE);
+
+        assertEquals(List.of(3L, 1L, 4L, 2L, 5L), ids(results));
+        assertEquals(1.0 / (RRF_K + 3) + 1.0 / (RRF_K + 2), results.get(0).getScore(), 1e-12);
+        // The vector hit keeps its cosine similarity
+        assertEquals(0.7, results.get(0).getSimilarity());
+    }
+
+    @Test
+    void heavierVectorWeightFavoursVectorRanking() {
+        givenVectorResults(hit(1, 0.9), hit(2, 0.8));
+        givenTextResults(hit(2, null), hit(1, null));
+
+        assertEquals(List.of(1L, 2L),
+                ids(searchService.hybridSearch("q", 2, 0.5f, 2f, 1f, null, KnowledgeFilter.NONE)));
+    }
+
+    @Test
+    void heavierTextWeightFavoursTextRanking() {
+        givenVectorResults(hit(1, 0.9), hit(2, 0.8));
+        givenTextResults(hit(2, null), hit(1, null));
+
+        assertEquals(List.of(2L, 1L),
+                ids(searchService.hybridSearch("q", 2, 0.5f, 1f, 2f, null, KnowledgeFilter.NONE)));
+    }
+
+    @Test
+    void zeroWeightSkipsTheBranch() {
+        givenTextResults(hit(7, null), hit(8, null));
+
+        List<KnowledgeVO> results = searchService.hybridSearch("q", 5, 0.5f, 0f, 1f, null, KnowledgeFilter.NONE);
+
+        assertEquals(List.of(7L, 8L), ids(results));
+        verify(aiService, never()).generateEmbedding(anyString());
+        verify(vectorIndex, never()).search(any(), anyFloat(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void resultsAreCutToTheLimitAndBranchesSearchedDeeper() {
+        givenVectorResults(hit(1, 0.9), hit(2, 0.8), hit(3, 0.7));
+        givenTextResults();
+
+        List<KnowledgeVO> results = searchService.hybridSearch("q", 2, 0.5f, 1f, 1f, 80, KnowledgeFilter.NONE);
+
+        assertEquals(List.of(1L, 2L), ids(results));
+        verify(vectorIndex).search(EMBEDDING, 0.5f, 50, 80, KnowledgeFilter.NONE);
+        verify(repository).searchText("q", 50, KnowledgeFilter.NONE);
+    }
+
+    @Test
+    void equalScoresAreOrderedById() {
+        givenVectorResults(hit(9, 0.9));
+        givenTextResults(hit(4, null));
+
+        assertEquals(List.of(4L, 9L),
+                ids(searchService.hybridSearch("q", 5, 0.5f, 1f, 1f, null, KnowledgeFilter.NONE)));
+    }
+
+    private void givenVectorResults(KnowledgeVO... hits) {
+        when(vectorIndex.search(any(), anyFloat(), anyInt(), anyInt(), any())).thenReturn(List.of(hits));
+    }
+
+    private void givenTextResults(KnowledgeVO... hits) {
+        when(repository.searchText(anyString(), anyInt(), eq(KnowledgeFilter.NONE))).thenReturn(List.of(hits));
+    }
+
+    private static KnowledgeVO hit(long id, Double similarity) {
+        return new KnowledgeVO(id, "title " + id, "content " + id, similarity, "manual");
+    }
+
+    private static List<Long> ids(List<KnowledgeVO> results) {
+        return results.stream().map(KnowledgeVO::getId).toList();
+    }
+}
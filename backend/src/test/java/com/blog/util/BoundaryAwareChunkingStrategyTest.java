@@ -0,0 +1,143 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundaryAwareChunkingStrategyTest {
+
+    private static final String SENTENCE = "The quick brown fox jumps over the lazy dog near the river bank. ";
+
+    @Test
+    void emptyAndShortText() {
+        BoundaryAwareChunkingStrategy strategy = new BoundaryAwareChunkingStrategy(100, 10);
+        assertFalse(strategy.chunks(null).hasNext());
+        assertFalse(strategy.chunks("").hasNext());
+        assertEquals(List.of("Just one sentence."), strategy.split("Just one sentence."));
+        assertThrows(IllegalArgumentException.class, () -> new BoundaryAwareChunkingStrategy(0, 0));
+    }
+
+    @Test
+    void chunksStayWithinBudgetAndMatchTheirSpans() {
+        String text = SENTENCE.repeat(80);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(50, 10), text);
+        assertTrue(chunks.size() > 1);
+        for (ChunkingStrategy.Chunk chunk : chunks) {
+            assertTrue(estimatedTokens(chunk.text()) <= 50, chunk.text());
+            assertEquals(text.substring(chunk.start(), chunk.end()).strip(), chunk.text());
+        }
+        assertEquals(0, chunks.get(0).start());
+        assertEquals(text.strip(), text.substring(0, chunks.get(chunks.size() - 1).end()).strip());
+    }
+
+    @Test
+    void proseIsCutAtSentenceEndsWithOverlap() {
+        String text = SENTENCE.repeat(40);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(60, 15), text);
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkingStrategy.Chunk chunk = chunks.get(i);
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.text().endsWith("."), chunk.text());
+            }
+            if (i > 0) {
+                ChunkingStrategy.Chunk previous = chunks.get(i - 1);
+                assertTrue(chunk.start() < previous.end(), "chunk " + i + " does not overlap its predecessor");
+                assertTrue(chunk.start() > previous.start());
+            }
+        }
+    }
+
+    @Test
+    void noOverlapWithoutOverlapBudget() {
+        String text = SENTENCE.repeat(40);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(60, 0), text);
+        for (int i = 1; i < chunks.size(); i++) {
+            assertTrue(chunks.get(i).start() >= chunks.get(i - 1).end());
+        }
+    }
+
+    @Test
+    void headingStartsAChunkWithoutOverlap() {
+        String text = SENTENCE.repeat(6) + "\n\n# Second section\n\n" + SENTENCE.repeat(6);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(120, 20), text);
+        int heading = indexOfChunkStartingWith(chunks, "# Second section");
+        assertTrue(heading > 0, "heading does not start a chunk: " + chunks);
+        assertTrue(chunks.get(heading).start() >= chunks.get(heading - 1).end());
+    }
+
+    @Test
+    void hashLinesThatAreNotHeadingsDoNotStartAChunk() {
+        String text = SENTENCE.repeat(3) + "\n#include <stdio.h>\n#hashtag notes\n" + SENTENCE.repeat(2)
+                + "\n\n" + SENTENCE.repeat(10);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(120, 0), text);
+        assertEquals(-1, indexOfChunkStartingWith(chunks, "#"), "cut before a non-heading: " + chunks);
+        assertTrue(chunks.get(0).text().contains("#hashtag notes"));
+        // The paragraph break after them is the strongest boundary left in the window
+        assertTrue(chunks.get(0).text().endsWith(SENTENCE.strip()), chunks.get(0).text());
+    }
+
+    @Test
+    void sentenceMarksInsideFencesAreNotCutPoints() {
+        String code = "```\nvalue = compute(a, b); print(value!); check(x?y:z);\nmore(code);\n```";
+        String text = SENTENCE.repeat(3) + "\n\n" + code + "\n\n" + SENTENCE.repeat(3);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(60, 0), text);
+        boolean whole = chunks.stream().anyMatch(chunk -> chunk.text().contains(code));
+        assertTrue(whole, "code fence was split: " + chunks);
+    }
+
+    @Test
+    void cjkTextIsCutAtChineseSentenceEnds() {
+        String text = "向量检索需要把文档切分成合适大小的分块。".repeat(30);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(50, 0), text);
+        assertTrue(chunks.size() > 1);
+        for (int i = 0; i < chunks.size(); i++) {
+            assertTrue(estimatedTokens(chunks.get(i).text()) <= 50);
+            if (i < chunks.size() - 1) {
+                assertTrue(chunks.get(i).text().endsWith("。"), chunks.get(i).text());
+            }
+        }
+    }
+
+    @Test
+    void unbrokenTextIsHardCut() {
+        String text = "x".repeat(1000);
+        List<ChunkingStrategy.Chunk> chunks = chunks(new BoundaryAwareChunkingStrategy(25, 0), text);
+        assertEquals(10, chunks.size());
+        assertEquals(text, String.join("", chunks.stream().map(ChunkingStrategy.Chunk::text).toList()));
+    }
+
+    private static List<ChunkingStrategy.Chunk> chunks(ChunkingStrategy strategy, String text) {
+        List<ChunkingStrategy.Chunk> result = new ArrayList<>();
+        Iterator<ChunkingStrategy.Chunk> iterator = strategy.chunks(text);
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static int indexOfChunkStartingWith(List<ChunkingStrategy.Chunk> chunks, String prefix) {
+        for (int i = 0; i < chunks.size(); i++) {
+            if (chunks.get(i).text().startsWith(prefix)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Same estimate as the strategy: one token per CJK or punctuation char, per four ASCII letters. */
+    private static int estimatedTokens(String text) {
+        int units = 0;
+        for (char c : text.toCharArray()) {
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            units += c < 0x80 && Character.isLetterOrDigit(c) ? 1 : 4;
+        }
+        return (units + 3) / 4;
+    }
+}
@@ -0,0 +1,80 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent chat throughput with the old chat-stream pool (2-4 threads, 200-slot queue,
+ * CallerRunsPolicy) versus a thread-per-task executor bounded by a semaphore, as ChatController
+ * uses now. Each simulated chat blocks like a streamed model call: a first-token delay, then one
+ * sleep per token. Uses virtual threads on Java 21+ and platform threads otherwise. Not part of the
+ * regular test run; run it with
+ * {@code mvn test -Dtest=ChatStreamLoadBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class ChatStreamLoadBenchmark {
+
+    private static final long FIRST_TOKEN_MILLIS = 300;
+    private static final int TOKENS = 40;
+    private static final long TOKEN_MILLIS = 10;
+    private static final int MAX_CONCURRENT_STREAMS = 64;
+
+    @Test
+    void compareExecutors() throws InterruptedException {
+        System.out.printf("virtual threads %s%n", VirtualThreads.isSupported() ? "available" : "unavailable");
+        for (int chats : new int[]{16, 64, 256}) {
+            ExecutorService pool = new ThreadPoolExecutor(2, 4, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(200), new NamedThreadFactory("bench-pool"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            double before = run(pool, null, chats);
+            pool.shutdownNow();
+
+            ExecutorService perTask = VirtualThreads.newThreadPerTaskExecutor("bench-stream", true);
+            double after = run(perTask, new Semaphore(MAX_CONCURRENT_STREAMS, true), chats);
+            perTask.shutdownNow();
+
+            System.out.printf("%3d concurrent chats: fixed pool %6.1f chats/s, per-task + semaphore %6.1f chats/s%n",
+                    chats, before, after);
+        }
+    }
+
+    /** Submit {@code chats} chats from one caller thread; returns completed chats per second. */
+    private static double run(ExecutorService executor, Semaphore permits, int chats) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(chats);
+        long start = System.nanoTime();
+        for (int i = 0; i < chats; i++) {
+            executor.execute(() -> {
+                try {
+                    if (permits != null) {
+                        permits.acquire();
+                    }
+                    try {
+                        streamAnswer();
+                    } finally {
+                        if (permits != null) {
+                            permits.release();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return chats / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void streamAnswer() throws InterruptedException {
+        Thread.sleep(FIRST_TOKEN_MILLIS);
+        for (int token = 0; token < TOKENS; token++) {
+            Thread.sleep(TOKEN_MILLIS);
+        }
+    }
+}
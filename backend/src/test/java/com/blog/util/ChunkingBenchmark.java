@@ -0,0 +1,55 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+/**
+ * Rough throughput of the fixed-size and boundary-aware chunkers on mixed Markdown. Not part of the
+ * regular test run; run it with
+ * {@code mvn test -Dtest=ChunkingBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class ChunkingBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void compareStrategies() {
+        StringBuilder document = new StringBuilder();
+        for (int section = 0; section < 400; section++) {
+            document.append("## Section ").append(section).append("\n\n");
+            document.append("The quick brown fox jumps over the lazy dog. ".repeat(12)).append("\n\n");
+            document.append("向量检索需要把文档切分成合适大小的分块，分块之间保留少量重叠。".repeat(6)).append("\n\n");
+            document.append("```\nfor (int i = 0; i < n; i++) { sum += a[i] * b[i]; }\n```\n\n");
+        }
+        String text = document.toString();
+
+        report("fixed-size", new FixedSizeChunkingStrategy(500), text);
+        report("boundary-aware", new BoundaryAwareChunkingStrategy(256, 32), text);
+    }
+
+    private static void report(String name, ChunkingStrategy strategy, String text) {
+        int chunks = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            chunks = count(strategy, text);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            chunks = count(strategy, text);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+        System.out.printf("%-15s %5d chunks, %6.2f ms per document, %6.1f MB/s%n",
+                name, chunks, seconds * 1000, text.length() * 2 / seconds / 1e6);
+    }
+
+    private static int count(ChunkingStrategy strategy, String text) {
+        int count = 0;
+        Iterator<ChunkingStrategy.Chunk> iterator = strategy.chunks(text);
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+}
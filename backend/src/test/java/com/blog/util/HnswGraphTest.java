@@ -0,0 +1,177 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 16;
+    // More than one 4096-node storage block
+    private static final int NODES = 4500;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void searchRecallAgainstBruteForce() {
+        float[][] vectors = randomVectors(NODES);
+        HnswGraph graph = build(vectors);
+
+        double recall = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector();
+            Set<Long> expected = bruteForce(vectors, query, 10);
+            Set<Long> found = labels(graph.search(query, 10, 64, null));
+            found.retainAll(expected);
+            recall += found.size() / 10.0;
+        }
+        assertTrue(recall / queries >= 0.9, "recall@10 " + recall / queries);
+    }
+
+    @Test
+    void hitsAreSortedWithCosineSimilarity() {
+        HnswGraph graph = new HnswGraph(2, 4, 16, 0);
+        graph.add(1, new float[]{1, 0}, new long[0]);
+        graph.add(2, new float[]{0, 5}, new long[0]);
+        graph.add(3, new float[]{3, 3}, new long[0]);
+
+        List<HnswGraph.Hit> hits = graph.search(new float[]{2, 0}, 3, 10, null);
+        assertEquals(List.of(1L, 3L, 2L), hits.stream().map(HnswGraph.Hit::label).toList());
+        assertEquals(1.0, hits.get(0).similarity(), 1e-6);
+        assertEquals(Math.sqrt(0.5), hits.get(1).similarity(), 1e-6);
+        assertEquals(0.0, hits.get(2).similarity(), 1e-6);
+    }
+
+    @Test
+    void removedNodesAreSkippedAndCompacted() {
+        float[][] vectors = randomVectors(1000);
+        HnswGraph graph = build(vectors);
+        Set<Long> removed = new HashSet<>();
+        for (long label = 0; label < 1000; label += 3) {
+            assertTrue(graph.remove(label));
+            removed.add(label);
+        }
+        assertFalse(graph.remove(0));
+        assertEquals(1000 - removed.size(), graph.liveCount());
+        assertEquals(removed.size(), graph.deletedCount());
+
+        for (int q = 0; q < 20; q++) {
+            Set<Long> found = labels(graph.search(randomVector(), 10, 64, null));
+            found.retainAll(removed);
+            assertTrue(found.isEmpty(), "removed labels returned: " + found);
+        }
+
+        HnswGraph compacted = graph.compact();
+        assertEquals(graph.liveCount(), compacted.liveCount());
+        assertEquals(0, compacted.deletedCount());
+        float[] query = vectors[1];
+        assertEquals(1L, compacted.search(query, 1, 32, null).get(0).label());
+    }
+
+    @Test
+    void addingAnExistingLabelReplacesIt() {
+        HnswGraph graph = new HnswGraph(2, 4, 16, 1);
+        graph.add(1, new float[]{1, 0}, new long[]{10});
+        graph.add(1, new float[]{0, 1}, new long[]{20});
+        assertEquals(1, graph.liveCount());
+        assertEquals(20, graph.attribute(1, 0, -1));
+        assertEquals(-1, graph.attribute(2, 0, -1));
+        assertEquals(1.0, graph.search(new float[]{0, 1}, 1, 10, null).get(0).similarity(), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> graph.add(2, new float[3], new long[]{0}));
+    }
+
+    @Test
+    void filteredSearchOnlyReturnsAcceptedNodes() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 100, 1);
+        for (int label = 0; label < 2000; label++) {
+            graph.add(label, randomVector(), new long[]{label % 10});
+        }
+        List<HnswGraph.Hit> hits = graph.search(randomVector(), 10, 64,
+                node -> graph.attributeOfNode(node, 0) == 3);
+        assertEquals(10, hits.size());
+        for (HnswGraph.Hit hit : hits) {
+            assertEquals(3, hit.label() % 10);
+        }
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) throws IOException {
+        float[][] vectors = randomVectors(NODES);
+        HnswGraph graph = build(vectors);
+        graph.remove(5);
+        Path file = dir.resolve("graph.snapshot");
+        try (MappedSnapshot.Writer out = MappedSnapshot.create(file)) {
+            graph.writeTo(out);
+            out.commit();
+        }
+
+        HnswGraph restored;
+        try (MappedSnapshot.Reader in = MappedSnapshot.open(file)) {
+            restored = HnswGraph.readFrom(in);
+        }
+        assertEquals(graph.liveCount(), restored.liveCount());
+        assertFalse(restored.contains(5));
+        for (int q = 0; q < 10; q++) {
+            float[] query = randomVector();
+            assertEquals(graph.search(query, 10, 64, null), restored.search(query, 10, 64, null));
+        }
+    }
+
+    @Test
+    void emptyGraphReturnsNothing() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 100, 0);
+        assertTrue(graph.search(randomVector(), 5, 10, null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new HnswGraph(0, 16, 100, 0));
+    }
+
+    private HnswGraph build(float[][] vectors) {
+        HnswGraph graph = new HnswGraph(DIMENSION, 16, 100, 0);
+        for (int label = 0; label < vectors.length; label++) {
+            graph.add(label, vectors[label], new long[0]);
+        }
+        return graph;
+    }
+
+    private static Set<Long> bruteForce(float[][] vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble(label -> -VectorMath.cosine(query, vectors[label])))
+                .limit(k)
+                .map(Integer::longValue)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Long> labels(List<HnswGraph.Hit> hits) {
+        return hits.stream().map(HnswGraph.Hit::label).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private float[][] randomVectors(int count) {
+        float[][] vectors = new float[count][];
+        Arrays.setAll(vectors, i -> randomVector());
+        return vectors;
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,74 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentedExecutorTest {
+
+    private final InstrumentedExecutor executor = new InstrumentedExecutor("test-io", 1, true);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void cancellingARunningTaskReleasesItsSlot() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> blocked = executor.supply(() -> {
+            started.countDown();
+            return sleep(60_000);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        blocked.cancel(true);
+        assertEquals("next", executor.supply(() -> "next").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancellingAWaitingTaskGivesUpItsTurn() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = executor.supply(() -> await(release));
+        CompletableFuture<Object> waiting = executor.supply(() -> sleep(60_000));
+
+        waiting.cancel(true);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals("next", executor.supply(() -> "next").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void tasksCancelledRightAfterSubmissionNeverKeepASlot() throws Exception {
+        // Cancellations land before, during and after each task's start; none may run on unnoticed
+        for (int i = 0; i < 500; i++) {
+            executor.supply(() -> sleep(60_000)).cancel(true);
+        }
+        assertEquals("next", executor.supply(() -> "next").get(10, TimeUnit.SECONDS));
+        assertEquals(0, executor.stats().get("active"));
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SwrCacheTest {
+
+    private final InstrumentedExecutor refreshExecutor = new InstrumentedExecutor("test-refresh", 4, true);
+    private final SwrCache<String> cache = new SwrCache<>("test", 100, Duration.ofMillis(200),
+            Duration.ofMinutes(1), refreshExecutor, null, String::getBytes, String::new);
+
+    @AfterEach
+    void shutdown() {
+        cache.close();
+        refreshExecutor.shutdown();
+    }
+
+    @Test
+    void slowLoadDoesNotBlockOtherKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> cache.get("slow", () -> {
+            await(release);
+            return "slow value";
+        }));
+
+        // Keys are loaded off the map lock, so this completes while "slow" is still loading
+        CompletableFuture<String> fast = CompletableFuture.supplyAsync(() -> cache.get("fast", () -> "fast value"));
+        assertEquals("fast value", fast.get(5, TimeUnit.SECONDS));
+        assertFalse(slow.isDone());
+
+        release.countDown();
+        assertEquals("slow value", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?>[] gets = new CompletableFuture<?>[8];
+        for (int i = 0; i < gets.length; i++) {
+            gets[i] = CompletableFuture.supplyAsync(() -> cache.get("key", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            }));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        CompletableFuture.allOf(gets).get(5, TimeUnit.SECONDS);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void staleValueIsServedWhileReloading() throws Exception {
+        AtomicInteger version = new AtomicInteger();
+        assertEquals("v1", cache.get("key", () -> "v" + version.incrementAndGet()));
+        Thread.sleep(300);
+
+        // Stale: the old value comes back at once and one reload replaces it
+        assertEquals("v1", cache.get("key", () -> "v" + version.incrementAndGet()));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (version.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals("v2", cache.get("key", () -> "v" + version.incrementAndGet()));
+    }
+
+    @Test
+    void nullResultsAreNotCached() {
+        assertNull(cache.get("key", () -> null));
+        assertEquals("value", cache.get("key", () -> "value"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.blog.util;
+
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.Random;
+
+/**
+ * Latency and allocation of encoding and decoding an embedding in pgvector's text format
+ * ("[0.1,0.2,...]") and in its binary format, the work the driver does per bound or read vector.
+ * Not part of the regular test run; run it with
+ * {@code mvn test -Dtest=VectorEncodingBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class VectorEncodingBenchmark {
+
+    private static final int WARMUP_OPS = 20_000;
+    private static final int OPS = 50_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private long sink;
+
+    @Test
+    void compareEncodings() throws SQLException {
+        for (int dimension : new int[]{384, 1024, 1536}) {
+            float[] values = new float[dimension];
+            Random random = new Random(dimension);
+            for (int i = 0; i < dimension; i++) {
+                values[i] = random.nextFloat() * 2 - 1;
+            }
+            PGvector vector = new PGvector(values);
+            String text = vector.getValue();
+            byte[] bytes = new byte[vector.lengthInBytes()];
+            vector.toBytes(bytes, 0);
+
+            System.out.printf("dim %4d (text %d bytes, binary %d bytes)%n", dimension, text.length(), bytes.length);
+            report("  encode text  ", () -> sink += new PGvector(values).getValue().length());
+            report("  encode binary", () -> {
+                PGvector v = new PGvector(values);
+                byte[] out = new byte[v.lengthInBytes()];
+                v.toBytes(out, 0);
+                sink += out[out.length - 1];
+            });
+            report("  decode text  ", () -> sink += new PGvector(text).toArray().length);
+            report("  decode binary", () -> {
+                PGvector v = new PGvector();
+                v.setByteValue(bytes, 0);
+                sink += v.toArray().length;
+            });
+        }
+    }
+
+    private void report(String name, Op op) throws SQLException {
+        for (int i = 0; i < WARMUP_OPS; i++) {
+            op.run();
+        }
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%s %8.0f ns/op %9d B/op%n", name, (double) elapsed / OPS, allocated / OPS);
+    }
+
+    private interface Op {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,64 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Rough timing of the scalar and Vector API kernels at embedding sizes. Not part of the regular
+ * test run (surefire only picks up *Test classes); run it with
+ * {@code mvn test -Dtest=VectorMathBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class VectorMathBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int ROWS = 20_000;
+
+    @Test
+    void compareKernels() {
+        for (int dimension : new int[]{384, 1024, 1536}) {
+            float[] query = randomVector(dimension, 1);
+            float[] matrix = randomVector(ROWS * dimension, 2);
+            VectorMath.Kernel scalar = new VectorMath.ScalarKernel();
+            VectorMath.Kernel simd = new SimdKernel();
+            double scalarNanos = time(scalar, query, matrix, dimension);
+            double simdNanos = time(simd, query, matrix, dimension);
+            System.out.printf("dim %4d: scalar %7.1f ns/dot, simd %7.1f ns/dot (%.1fx)%n",
+                    dimension, scalarNanos, simdNanos, scalarNanos / simdNanos);
+        }
+    }
+
+    private static double time(VectorMath.Kernel kernel, float[] query, float[] matrix, int dimension) {
+        float sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += scan(kernel, query, matrix, dimension);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            sink += scan(kernel, query, matrix, dimension);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Float.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return (double) elapsed / ROUNDS / ROWS;
+    }
+
+    private static float scan(VectorMath.Kernel kernel, float[] query, float[] matrix, int dimension) {
+        float best = Float.NEGATIVE_INFINITY;
+        for (int row = 0; row < ROWS; row++) {
+            best = Math.max(best, kernel.dot(query, 0, matrix, row * dimension, dimension));
+        }
+        return best;
+    }
+
+    private static float[] randomVector(int length, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextFloat() * 2 - 1;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,105 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorMathTest {
+
+    private static final VectorMath.Kernel SCALAR = new VectorMath.ScalarKernel();
+
+    private final Random random = new Random(42);
+
+    @Test
+    void simdKernelIsSelectedWhenTheModuleIsPresent() {
+        // Surefire starts the test JVM with --add-modules jdk.incubator.vector
+        assertTrue(VectorMath.simdEnabled());
+    }
+
+    @Test
+    void simdKernelMatchesScalarKernel() {
+        VectorMath.Kernel simd = new SimdKernel();
+        // Lengths below, at and around the lane count exercise the scalar tail
+        for (int length : new int[]{0, 1, 3, 7, 8, 15, 16, 17, 33, 1024, 1536}) {
+            float[] a = randomVector(length + 5);
+            float[] b = randomVector(length + 3);
+            float scale = Math.max(1, length);
+            assertEquals(SCALAR.dot(a, 5, b, 3, length), simd.dot(a, 5, b, 3, length), 1e-4f * scale,
+                    "dot, length " + length);
+            assertEquals(SCALAR.l2Squared(a, 5, b, 3, length), simd.l2Squared(a, 5, b, 3, length), 1e-4f * scale,
+                    "l2Squared, length " + length);
+        }
+    }
+
+    @Test
+    void cosineOfZeroVectorIsZero() {
+        assertEquals(0f, VectorMath.cosine(new float[4], new float[]{1, 2, 3, 4}));
+        assertEquals(1f, VectorMath.cosine(new float[]{1, 2, 3, 4}, new float[]{2, 4, 6, 8}), 1e-6f);
+        assertEquals(-1f, VectorMath.cosine(new float[]{1, 0}, new float[]{-3, 0}), 1e-6f);
+    }
+
+    @Test
+    void mismatchedLengthsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> VectorMath.dot(new float[3], new float[4]));
+        assertThrows(IllegalArgumentException.class, () -> VectorMath.cosine(new float[3], new float[4]));
+    }
+
+    @Test
+    void normalizeScalesOnlyTheGivenRange() {
+        float[] values = {9, 3, 4, 9};
+        VectorMath.normalize(values, 1, 2);
+        assertArrayEquals(new float[]{9, 0.6f, 0.8f, 9}, values, 1e-6f);
+
+        float[] zeros = new float[3];
+        VectorMath.normalize(zeros, 0, 3);
+        assertArrayEquals(new float[3], zeros);
+    }
+
+    @Test
+    void topKMatchesFullSort() {
+        int dimension = 24;
+        int rows = 500;
+        float[] query = randomVector(dimension);
+        float[] matrix = randomVector(rows * dimension);
+
+        Integer[] expected = IntStream.range(0, rows).boxed().toArray(Integer[]::new);
+        float[] scores = new float[rows];
+        for (int row = 0; row < rows; row++) {
+            scores[row] = VectorMath.dot(query, 0, matrix, row * dimension, dimension);
+        }
+        Arrays.sort(expected, Comparator.comparingDouble(row -> -scores[row]));
+
+        VectorMath.TopK top = VectorMath.topK(query, matrix, rows, 10);
+        assertEquals(10, top.indices().length);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected[i], top.indices()[i]);
+            assertEquals(scores[expected[i]], top.scores()[i]);
+        }
+    }
+
+    @Test
+    void topKWithMoreRequestedThanRows() {
+        float[] matrix = {1, 0, 0, 1, 1, 1};
+        VectorMath.TopK top = VectorMath.topK(new float[]{1, 0}, matrix, 3, 10);
+        assertEquals(3, top.indices().length);
+        assertEquals(0f, top.scores()[2]);
+        assertEquals(0, VectorMath.topK(new float[]{1, 0}, matrix, 3, 0).indices().length);
+        assertThrows(IllegalArgumentException.class, () -> VectorMath.topK(new float[]{1, 0}, matrix, 4, 1));
+    }
+
+    private float[] randomVector(int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextFloat() * 2 - 1;
+        }
+        return values;
+    }
+}
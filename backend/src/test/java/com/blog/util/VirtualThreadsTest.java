@@ -0,0 +1,49 @@
+package com.blog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+    @Test
+    void runsEveryTaskOnItsOwnNamedThread() throws Exception {
+        int tasks = 200;
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-stream", true);
+        try {
+            // Every task blocks until all have started, which a bounded pool could never satisfy
+            CountDownLatch started = new CountDownLatch(tasks);
+            Future<?>[] futures = new Future<?>[tasks];
+            for (int i = 0; i < tasks; i++) {
+                futures[i] = executor.submit(() -> {
+                    started.countDown();
+                    assertTrue(Thread.currentThread().getName().startsWith("test-stream-"));
+                    return started.await(10, TimeUnit.SECONDS);
+                });
+            }
+            for (Future<?> future : futures) {
+                assertEquals(true, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void platformThreadsWhenVirtualThreadsAreNotWanted() throws Exception {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-platform", false);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertTrue(thread.getName().startsWith("test-platform-"));
+            assertTrue(thread.isDaemon());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
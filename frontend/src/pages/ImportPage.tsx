@@ -1,5 +1,5 @@
 ﻿import React, { useEffect, useState } from 'react';
-import { Button, Card, message, Table, Typography, Upload } from 'antd';
+import { Button, Card, message, Progress, Table, Typography, Upload } from 'antd';
 import {
   FileMarkdownOutlined,
   FilePdfOutlined,
@@ -15,6 +15,10 @@ type ImportRecord = {
   filename: string;
   fileType?: string;
   chunksCount?: number;
+  chunksProcessed?: number;
+  duplicateChunks?: number;
+  nearDuplicateChunks?: number;
+  progress?: number;
   status?: string;
   createdAt?: string;
 };
@@ -36,6 +40,18 @@ const ImportPage: React.FC = () => {
     void loadRecords();
   }, []);
 
+  // Poll while any import is still queued or running in the background
+  const hasPending = records.some((r) => r.status === 'queued' || r.status === 'processing');
+  useEffect(() => {
+    if (!hasPending) {
+      return;
+    }
+    const timer = window.setInterval(() => {
+      void loadRecords();
+    }, 2000);
+    return () => window.clearInterval(timer);
+  }, [hasPending]);
+
   const handleUpload = async (file: File) => {
     const formData = new FormData();
     formData.append('file', file);
@@ -45,7 +61,7 @@ const ImportPage: React.FC = () => {
       const resp = await importService.upload<ImportResult>(formData);
       const result = resp.data;
       if (result?.success) {
-        message.success(`导入成功，共生成 ${result.chunksCount ?? 0} 个知识块`);
+        message.success('文件已加入导入队列，正在后台解析');
       } else {
         message.error(result?.message ?? '导入失败');
       }
@@ -68,6 +84,24 @@ const ImportPage: React.FC = () => {
     { title: '文件名', dataIndex: 'filename', key: 'filename' },
     { title: '类型', dataIndex: 'fileType', key: 'fileType' },
     { title: '知识块数', dataIndex: 'chunksCount', key: 'chunksCount' },
+    {
+      title: '重复块（相同/近似）',
+      key: 'duplicates',
+      render: (_: unknown, record: ImportRecord) =>
+        `${record.duplicateChunks ?? 0} / ${record.nearDuplicateChunks ?? 0}`
+    },
+    {
+      title: '进度',
+      dataIndex: 'progress',
+      key: 'progress',
+      render: (progress: number | undefined, record: ImportRecord) => (
+        <Progress
+          percent={progress ?? 0}
+          size="small"
+          status={record.status === 'failed' ? 'exception' : undefined}
+        />
+      )
+    },
     { title: '状态', dataIndex: 'status', key: 'status' },
     { title: '导入时间', dataIndex: 'createdAt', key: 'createdAt' }
   ];
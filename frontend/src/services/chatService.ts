@@ -128,7 +128,9 @@ const parseSseBlock = (block: string): ParsedEvent | null => {
       return;
     }
     if (trimmed.startsWith('data:')) {
-      dataLines.push(trimmed.slice(5).trim());
+      // Keep the raw payload: streamed tokens may start or end with whitespace
+      const raw = line.replace(/\r$/, '');
+      dataLines.push(raw.slice(raw.indexOf('data:') + 5));
     }
   });
   return { type: eventType, data: dataLines.join('\n') };
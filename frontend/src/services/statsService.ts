@@ -6,25 +6,25 @@ export type DashboardStats = {
     newsCount: number;
 };
 
-type CountResponse = {
+type StatsResponse = {
     code: number;
     message: string;
-    data: unknown[];
+    data?: {
+        knowledgeCount: number;
+        articleCount: number;
+        newsCount: number;
+    };
 };
 
 export const statsService = {
     getDashboardStats: async (): Promise<DashboardStats> => {
-        // Fetch all counts in parallel - request.get returns ApiResponse directly (not wrapped in axios.data)
-        const [knowledgeResp, articlesResp, newsResp] = await Promise.all([
-            request.get<CountResponse>('/api/knowledge'),
-            request.get<CountResponse>('/api/articles/published'),
-            request.get<CountResponse>('/api/news/featured')
-        ]);
+        // Counts come from one server-side aggregate - request.get returns ApiResponse directly (not wrapped in axios.data)
+        const resp = await request.get<StatsResponse>('/api/stats');
 
         return {
-            knowledgeCount: Array.isArray(knowledgeResp?.data) ? knowledgeResp.data.length : 0,
-            articleCount: Array.isArray(articlesResp?.data) ? articlesResp.data.length : 0,
-            newsCount: Array.isArray(newsResp?.data) ? newsResp.data.length : 0
+            knowledgeCount: resp?.data?.knowledgeCount ?? 0,
+            articleCount: resp?.data?.articleCount ?? 0,
+            newsCount: resp?.data?.newsCount ?? 0
         };
     }
 };